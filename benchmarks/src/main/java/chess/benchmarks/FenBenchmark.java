@@ -0,0 +1,65 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.FenLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing positions as FEN, one at a time and in bulk through {@link FenLoader}, as when
+ * importing position suites and opening collections
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar Fen}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FenBenchmark {
+
+    // Lines in the in-memory file read by the bulk benchmark
+    private static final int LINES = 10_000;
+
+    private ChessGame[] games;
+    private String suite;
+    private StringBuilder builder;
+
+    @Setup
+    public void setup() {
+        games = Positions.midgames();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            text.append(Positions.MIDGAMES[i % Positions.MIDGAMES.length]).append('\n');
+        }
+        suite = text.toString();
+        builder = new StringBuilder(100);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String fen : Positions.MIDGAMES) {
+            blackhole.consume(Fen.parse(fen));
+        }
+    }
+
+    @Benchmark
+    public void format(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            builder.setLength(0);
+            blackhole.consume(Fen.appendTo(builder, game));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int loadSuite(Blackhole blackhole) throws IOException {
+        return FenLoader.load(new StringReader(suite), blackhole::consume);
+    }
+}
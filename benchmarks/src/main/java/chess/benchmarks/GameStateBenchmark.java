@@ -0,0 +1,58 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check, checkmate and stalemate detection over the position corpus, asked for both teams the way
+ * the server does after every move
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar GameState}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStateBenchmark {
+
+    private ChessGame[] games;
+
+    @Setup
+    public void setup() {
+        games = Positions.midgames();
+    }
+
+    @Benchmark
+    public int isInCheck() {
+        int count = 0;
+        for (ChessGame game : games) {
+            count += game.isInCheck(ChessGame.TeamColor.WHITE) ? 1 : 0;
+            count += game.isInCheck(ChessGame.TeamColor.BLACK) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int isInCheckmate() {
+        int count = 0;
+        for (ChessGame game : games) {
+            count += game.isInCheckmate(ChessGame.TeamColor.WHITE) ? 1 : 0;
+            count += game.isInCheckmate(ChessGame.TeamColor.BLACK) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int isInStalemate() {
+        int count = 0;
+        for (ChessGame game : games) {
+            count += game.isInStalemate(ChessGame.TeamColor.WHITE) ? 1 : 0;
+            count += game.isInStalemate(ChessGame.TeamColor.BLACK) ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,128 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation over the position corpus. Each invocation covers every position, so scores are
+ * per corpus pass rather than per move.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar MoveGeneration}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveGenerationBenchmark {
+
+    private ChessGame[] games;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setup() {
+        games = Positions.midgames();
+    }
+
+    /**
+     * ChessGame.validMoves through the public ChessPosition API, for every piece of the team to move
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            ChessBoard board = game.getBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = ChessPosition.of(row, col);
+                    ChessPiece piece = board.getPiece(position);
+                    if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                        blackhole.consume(game.validMoves(position));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * ChessGame.validMoves into a reused packed move list, for every piece of the team to move
+     */
+    @Benchmark
+    public int validMovesPacked() {
+        int count = 0;
+        for (ChessGame game : games) {
+            long pieces = game.getBoard().getPieces(game.getTeamTurn());
+            for (; pieces != 0; pieces &= pieces - 1) {
+                moves.clear();
+                game.validMoves(Long.numberOfTrailingZeros(pieces), moves);
+                count += moves.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Makes and takes back every legal move in every position
+     */
+    @Benchmark
+    public long makeUnmakeMove() {
+        long keys = 0;
+        for (ChessGame game : games) {
+            moves.clear();
+            long pieces = game.getBoard().getPieces(game.getTeamTurn());
+            for (; pieces != 0; pieces &= pieces - 1) {
+                game.validMoves(Long.numberOfTrailingZeros(pieces), moves);
+            }
+            for (int i = 0; i < moves.size(); i++) {
+                game.makeMove(moves.get(i));
+                keys ^= game.getZobristKey();
+                game.unmakeMove();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * ChessGame.makeMove(ChessMove), the validated path the server uses, followed by unmakeMove
+     */
+    @State(Scope.Thread)
+    public static class MoveState {
+        ChessGame[] games;
+        ChessMove[] firstMoves;
+
+        @Setup
+        public void setup() {
+            games = Positions.midgames();
+            firstMoves = new ChessMove[games.length];
+            for (int i = 0; i < games.length; i++) {
+                MoveList legal = new MoveList();
+                long pieces = games[i].getBoard().getPieces(games[i].getTeamTurn());
+                for (; pieces != 0 && legal.isEmpty(); pieces &= pieces - 1) {
+                    games[i].validMoves(Long.numberOfTrailingZeros(pieces), legal);
+                }
+                firstMoves[i] = PackedMove.toChessMove(legal.get(0));
+            }
+        }
+    }
+
+    @Benchmark
+    public long makeMove(MoveState state) throws InvalidMoveException {
+        long keys = 0;
+        for (int i = 0; i < state.games.length; i++) {
+            state.games[i].makeMove(state.firstMoves[i]);
+            keys ^= state.games[i].getZobristKey();
+            state.games[i].unmakeMove();
+        }
+        return keys;
+    }
+}
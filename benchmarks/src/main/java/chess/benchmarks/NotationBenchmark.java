@@ -0,0 +1,77 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.notation.San;
+import chess.notation.Uci;
+import chess.piecemoves.MoveList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading every legal move of the midgame positions in SAN and UCI notation, as the server does
+ * for each move it announces and the PGN importer does for each move it reads
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar Notation}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NotationBenchmark {
+
+    private ChessGame[] games;
+    private MoveList[] moves;
+    private String[][] sans;
+    private MoveList scratch;
+    private StringBuilder builder;
+
+    @Setup
+    public void setup() {
+        games = Positions.midgames();
+        moves = new MoveList[games.length];
+        sans = new String[games.length][];
+        for (int i = 0; i < games.length; i++) {
+            moves[i] = new MoveList();
+            games[i].generateLegalMoves(moves[i]);
+            sans[i] = new String[moves[i].size()];
+            for (int j = 0; j < moves[i].size(); j++) {
+                sans[i][j] = San.format(games[i], moves[i].get(j));
+            }
+        }
+        scratch = new MoveList();
+        builder = new StringBuilder(16);
+    }
+
+    @Benchmark
+    public void formatSan(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            for (int j = 0; j < moves[i].size(); j++) {
+                builder.setLength(0);
+                blackhole.consume(San.appendTo(builder, games[i], moves[i].get(j), scratch));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseSan(Blackhole blackhole) {
+        for (int i = 0; i < games.length; i++) {
+            for (String san : sans[i]) {
+                blackhole.consume(San.parse(games[i], san, 0, san.length(), scratch));
+            }
+        }
+    }
+
+    @Benchmark
+    public void formatUci(Blackhole blackhole) {
+        for (MoveList list : moves) {
+            for (int j = 0; j < list.size(); j++) {
+                builder.setLength(0);
+                blackhole.consume(Uci.appendTo(builder, list.get(j)));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling: time to reach a fixed depth, and nodes searched per second, for each thread count.
+ * The table is cleared before every search so each one starts cold.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ParallelSearch -p threads=1,2,4,8,16}
+ * to go up to the number of cores on the machine.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"7"})
+    private int depth;
+
+    private ChessGame game;
+    private TranspositionTable table;
+
+    /**
+     * Nodes searched, reported by JMH as a rate next to the nodesPerSecond score
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = Fen.parse(Positions.MIDGAMES[1]);
+        table = new TranspositionTable(64);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    /**
+     * Wall-clock time for the search to finish the given depth
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchResult timeToDepth() {
+        return new ParallelSearch(game, table, threads).search(SearchLimits.depth(depth));
+    }
+
+    /**
+     * Fixed 200 ms searches; the "nodes" counter gives nodes per second across all threads
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public SearchResult nodesPerSecond(Nodes counter) {
+        SearchResult result = new ParallelSearch(game, table, threads).search(SearchLimits.time(200));
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessPiece.pieceMoves for one piece type at a time, over every piece of that type in the corpus
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar PieceMoves -p pieceType=QUEEN}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    private ChessPiece.PieceType pieceType;
+
+    private final List<ChessBoard> boards = new ArrayList<>();
+    private final List<ChessPosition> positions = new ArrayList<>();
+    private final List<ChessPiece> pieces = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        for (ChessGame game : Positions.midgames()) {
+            ChessBoard board = game.getBoard();
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    ChessPosition position = ChessPosition.of(row, col);
+                    ChessPiece piece = board.getPiece(position);
+                    if (piece != null && piece.getPieceType() == pieceType) {
+                        boards.add(board);
+                        positions.add(position);
+                        pieces.add(piece);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < pieces.size(); i++) {
+            blackhole.consume(pieces.get(i).pieceMoves(boards.get(i), positions.get(i)));
+        }
+    }
+}
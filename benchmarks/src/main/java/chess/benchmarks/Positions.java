@@ -0,0 +1,37 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.Fen;
+
+/**
+ * Corpus of realistic positions shared by the benchmarks, mostly middlegames where every piece
+ * type has moves and checks, pins and captures all come up
+ */
+public final class Positions {
+
+    public static final String[] MIDGAMES = {
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "r1bq1rk1/ppp2ppp/2np1n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7",
+            "r1bqr1k1/pp1nbppp/2p2n2/3p2B1/3P4/2NBP3/PPQ1NPPP/R3K2R w KQ - 6 10",
+            "2rq1rk1/pb1nbppp/1p2pn2/2pp4/2PP4/1P2PN2/PB1NBPPP/R2Q1RK1 w - - 2 11",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "3r1rk1/pp3ppp/2n1b3/2q1p3/4P3/2P1BN2/P1Q2PPP/R4RK1 b - - 3 17",
+            "r2q1rk1/pp1bbppp/2n1pn2/3p4/3P4/2PBPN2/PP1N1PPP/R1BQ1RK1 b - - 5 9",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r1b2rk1/2q1bppp/p2p1n2/np2p3/3PP3/5N1P/PPBN1PP1/R1BQR1K1 b - - 0 12",
+    };
+
+    private Positions() {}
+
+    /**
+     * @return a fresh game for every position in the corpus
+     */
+    public static ChessGame[] midgames() {
+        ChessGame[] games = new ChessGame[MIDGAMES.length];
+        for (int i = 0; i < MIDGAMES.length; i++) {
+            games[i] = Fen.parse(MIDGAMES[i]);
+        }
+        return games;
+    }
+}
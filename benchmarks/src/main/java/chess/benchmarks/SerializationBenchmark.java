@@ -0,0 +1,77 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessGameTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import serialization.Json;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing games to JSON and reading them back through ChessGameTypeAdapter, as the server does
+ * for every stored game. The "newGson" benchmarks build a Gson per call, as the code did before
+ * the shared instance in {@link Json}, to show what caching it saves.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar Serialization}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+    private ChessGame[] games;
+    private String[] json;
+    private Gson gson;
+
+    @Setup
+    public void setup() {
+        gson = Json.gson();
+        games = Positions.midgames();
+        json = new String[games.length];
+        for (int i = 0; i < games.length; i++) {
+            json[i] = gson.toJson(games[i]);
+        }
+    }
+
+    @Benchmark
+    public void toJson(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(gson.toJson(game));
+        }
+    }
+
+    @Benchmark
+    public void fromJson(Blackhole blackhole) {
+        for (String game : json) {
+            blackhole.consume(gson.fromJson(game, ChessGame.class));
+        }
+    }
+
+    @Benchmark
+    public void roundTrip(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(gson.fromJson(gson.toJson(game), ChessGame.class));
+        }
+    }
+
+    @Benchmark
+    public void toJsonNewGson(Blackhole blackhole) {
+        for (ChessGame game : games) {
+            blackhole.consume(new Gson().toJson(game));
+        }
+    }
+
+    @Benchmark
+    public void fromJsonNewGson(Blackhole blackhole) {
+        for (String game : json) {
+            Gson perCall = new GsonBuilder().registerTypeAdapter(ChessGame.class, new ChessGameTypeAdapter()).create();
+            blackhole.consume(perCall.fromJson(game, ChessGame.class));
+        }
+    }
+}
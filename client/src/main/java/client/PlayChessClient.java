@@ -1,10 +1,12 @@
 package client;
 
 import chess.*;
+import chess.notation.San;
+import chess.notation.Uci;
+import chess.piecemoves.PackedMove;
 import client.websocket.*;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import exception.ResponseException;
+import serialization.Json;
 import websocket.messages.*;
 
 import java.util.ArrayList;
@@ -81,24 +83,28 @@ public class PlayChessClient implements ChessClient, ServerMessageObserver {
     }
 
     public String makeMove(String... params) throws ResponseException {
-        if (params.length == 2) {
-            String startStr = params[0];
-            char[] start = startStr.toCharArray();
-            String endStr = params[1];
-            char[] end = endStr.toCharArray();
-            if ((start.length == 2) && (start[0] >= 'a') && (start[0] <= 'h') && (start[1] >= '1') && (start[1] <= '8')) {
-                ChessPosition startPos = new ChessPosition(start[1] - '0', start[0] - 'a' + 1);
-                ChessPosition endPos = new ChessPosition(end[1] - '0', end[0] - 'a' + 1);
-                if (game.isEnded()) {
-                    return "The game is ended";
-                }
-                wsc.makeMove(authToken, gameID, new ChessMove(startPos, endPos, null));
-                return String.format("You made a move from <%s> to <%s>", params[0], params[1]);
-            } else {
-                return "Wrong start/end position format";
+        if (params.length < 1 || params.length > 3) {
+            throw new ResponseException(400, "Expected: <start> <end> [promotion] or <move>");
+        }
+        if (game.isEnded()) {
+            return "The game is ended";
+        }
+        // "e7 e8 q", "e7e8q" or SAN such as "Nf3" and "exd8=Q"
+        String text = String.join("", params);
+        ChessMove move;
+        String san;
+        try {
+            try {
+                move = Uci.parse(text);
+            } catch (IllegalArgumentException notUci) {
+                move = PackedMove.toChessMove(San.parse(game, text));
             }
+            san = San.format(game, move);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
         }
-        throw new ResponseException(400, "Expected: <start> <end>");
+        wsc.makeMove(authToken, gameID, move);
+        return "You played " + san;
     }
 
     public String resign(String... params) throws ResponseException {
@@ -111,7 +117,7 @@ public class PlayChessClient implements ChessClient, ServerMessageObserver {
             String startStr = params[0];
             char[] start = startStr.toCharArray();
             if ((start.length == 2) && (start[0] >= 'a') && (start[0] <= 'h') && (start[1] >= '1') && (start[1] <= '8')) {
-                ChessPosition startPos = new ChessPosition(start[1] - '0', start[0] - 'a' + 1);
+                ChessPosition startPos = ChessPosition.of(start[1] - '0', start[0] - 'a' + 1);
                 if (game.getBoard().getPiece(startPos) == null) {
                     return "No piece at the position";
                 }
@@ -165,7 +171,7 @@ public class PlayChessClient implements ChessClient, ServerMessageObserver {
         return """
                 - redraw
                 - leave
-                - move <start> <end>
+                - move <start> <end> [promotion] or move <SAN>, e.g. move e2 e4, move e7e8q, move Nf3
                 - resign
                 - highlight <start>
                 """;
@@ -204,7 +210,7 @@ public class PlayChessClient implements ChessClient, ServerMessageObserver {
             for (int col = 0; col < 8; col++) {
                 squares[row][col].pattern = new SquarePattern();
                 squares[row][col].pattern.bgColor = bgColor;
-                ChessPosition newPos = new ChessPosition(row + 1, col + 1);
+                ChessPosition newPos = ChessPosition.of(row + 1, col + 1);
                 squares[row][col].piece = board.getPiece(newPos);
                 if (squares[row][col].piece != null) {
                     ChessGame.TeamColor color = squares[row][col].piece.getTeamColor();
@@ -273,26 +279,23 @@ public class PlayChessClient implements ChessClient, ServerMessageObserver {
 
     @Override
     public void notify(String message) {
-        ServerMessage serverMessage = new Gson().fromJson(message, ServerMessage.class);
+        ServerMessage serverMessage = Json.fromJson(message, ServerMessage.class);
         switch (serverMessage.getServerMessageType()) {
             case NOTIFICATION -> {
-                var notification = new Gson().fromJson(message, NotificationMessage.class);
+                var notification = Json.fromJson(message, NotificationMessage.class);
                 System.out.print("\n" + SET_TEXT_COLOR_MAGENTA + notification.getMessage());
             }
             case ERROR -> {
-                var error = new Gson().fromJson(message, ErrorMessage.class);
+                var error = Json.fromJson(message, ErrorMessage.class);
                 System.out.print("\n" + SET_TEXT_COLOR_RED + error.getErrorMessage());
             }
-            case LOAD_GAME -> loadGame(new Gson().fromJson(message, LoadGameMessage.class));
+            case LOAD_GAME -> loadGame(Json.fromJson(message, LoadGameMessage.class));
         }
         System.out.print("\n" + RESET_TEXT_COLOR + "PLAY_CHESS >>> " + SET_TEXT_COLOR_GREEN);
     }
 
     private void loadGame(LoadGameMessage message) {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(ChessGame.class, new ChessGameTypeAdapter());
-        Gson gson = gsonBuilder.create();
-        game = gson.fromJson(message.getGame(), ChessGame.class);
+        game = Json.fromJson(message.getGame(), ChessGame.class);
         memDrawBoard();
         drawBoard();
     }
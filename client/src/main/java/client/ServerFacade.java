@@ -1,12 +1,12 @@
 package client;
 
 import chess.ChessGame;
-import chess.ChessGameTypeAdapter;
 import com.google.gson.*;
 import exception.ResponseException;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
+import serialization.Json;
 
 import java.io.*;
 import java.net.HttpURLConnection;
@@ -102,7 +102,7 @@ public class ServerFacade {
     private static void writeBody(Object request, HttpURLConnection http) throws IOException {
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = Json.toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
@@ -146,10 +146,7 @@ public class ServerFacade {
                     }
                     var gameName = gameDataObj.get("gameName").getAsString();
                     JsonObject chessGameObj = gameDataObj.get("game").getAsJsonObject();
-                    GsonBuilder gsonBuilder = new GsonBuilder();
-                    gsonBuilder.registerTypeAdapter(ChessGame.class, new ChessGameTypeAdapter());
-                    Gson gson = gsonBuilder.create();
-                    var game = gson.fromJson(chessGameObj, ChessGame.class);
+                    var game = Json.fromJson(chessGameObj, ChessGame.class);
                     GameData gameData = new GameData(gameID, whiteUsername, blackUsername, gameName, game);
                     listResponse.games().add(gameData);
                 }
@@ -165,7 +162,7 @@ public class ServerFacade {
             try (InputStream respBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
                 if (responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = Json.fromJson(reader, responseClass);
                 }
             }
         }
@@ -1,8 +1,8 @@
 package client.websocket;
 
 import chess.ChessMove;
-import com.google.gson.Gson;
 import exception.ResponseException;
+import serialization.Json;
 import websocket.commands.*;
 
 import javax.websocket.*;
@@ -44,7 +44,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void connect(String authToken, int gameID) throws ResponseException {
         try {
             var command = new ConnectCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Json.toJson(command));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -53,7 +53,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void makeMove(String authToken, int gameID, ChessMove move) throws ResponseException {
         try {
             var command = new MakeMoveCommand(authToken, gameID, move);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Json.toJson(command));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -62,7 +62,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void resign(String authToken, int gameID) throws ResponseException {
         try {
             var command = new ResignCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Json.toJson(command));
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -71,7 +71,7 @@ public class WebsocketCommunicator extends Endpoint {
     public void leaveGame(String authToken, int gameID) throws ResponseException {
         try {
             var command = new LeaveGameCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Json.toJson(command));
             this.session.close();
         } catch (IOException ex) {
             throw new ResponseException(500, ex.getMessage());
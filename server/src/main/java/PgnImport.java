@@ -0,0 +1,28 @@
+import chess.notation.PgnImporter;
+import chess.notation.PgnReader;
+import dataaccess.MySqlGameDAO;
+import service.PgnImportService;
+
+import java.nio.file.Path;
+
+public class PgnImport {
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java PgnImport <file.pgn> [batch size]");
+            return;
+        }
+        try (PgnReader reader = PgnReader.open(Path.of(args[0]))) {
+            int batchSize = PgnImportService.DEFAULT_BATCH_SIZE;
+            if (args.length >= 2) {
+                batchSize = Integer.parseInt(args[1]);
+            }
+            PgnImportService importService = new PgnImportService(new MySqlGameDAO(), batchSize);
+            PgnImporter.Result result = importService.importGames(reader);
+            System.out.printf("Imported %,d of %,d games (%,d rejected) in %.1f s, %,.0f games/s%n",
+                    result.imported(), result.games(), result.rejected(), result.millis() / 1000.0,
+                    result.gamesPerSecond());
+        } catch (Throwable ex) {
+            System.out.printf("Unable to import games: %s%n", ex.getMessage());
+        }
+    }
+}
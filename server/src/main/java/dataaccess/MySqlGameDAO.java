@@ -1,10 +1,11 @@
 package dataaccess;
 
 import chess.*;
-import com.google.gson.*;
 import exception.ResponseException;
 import model.GameData;
+import serialization.Json;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -14,6 +15,27 @@ public class MySqlGameDAO implements SqlGameDAO, SqlDAO {
 
     public MySqlGameDAO() throws ResponseException {
         configureDatabase(CREATE_GAMES);
+        migrateGameColumn();
+    }
+
+    /**
+     * Tables created before games were stored packed hold JSON in a TEXT column. Turning it into a BLOB
+     * keeps the JSON bytes, which readGame still understands, and lets new writes store packed games.
+     */
+    private void migrateGameColumn() throws ResponseException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT DATA_TYPE FROM information_schema.COLUMNS "
+                    + "WHERE TABLE_SCHEMA=DATABASE() AND TABLE_NAME='games' AND COLUMN_NAME='game'";
+            try (var ps = conn.prepareStatement(statement)) {
+                try (var rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getString(1).equalsIgnoreCase("text")) {
+                        executeUpdate("ALTER TABLE games MODIFY `game` BLOB NOT NULL");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new ResponseException(500, String.format("Unable to configure database: %s", e.getMessage()));
+        }
     }
 
     @Override
@@ -46,8 +68,7 @@ public class MySqlGameDAO implements SqlGameDAO, SqlDAO {
         }
         var statement = "INSERT INTO games (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
         ChessGame chessGame = new ChessGame();
-        var jsonGame = new  Gson().toJson(chessGame);
-        var id = executeUpdate(statement, "", "", gameName, jsonGame);
+        var id = executeUpdate(statement, "", "", gameName, ChessGameCodec.encode(chessGame));
         return new GameData(id, "", "", gameName, chessGame);
     }
 
@@ -62,11 +83,10 @@ public class MySqlGameDAO implements SqlGameDAO, SqlDAO {
             blackUsername = null;
         }
         var gameName = rs.getString("gameName");
-        var jsonGame = rs.getString("game");
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(ChessGame.class, new ChessGameTypeAdapter());
-        Gson gson = gsonBuilder.create();
-        var game = gson.fromJson(jsonGame, ChessGame.class);
+        var storedGame = rs.getBytes("game");
+        // Rows written before the packed format hold JSON
+        var game = ChessGameCodec.isEncoded(storedGame) ? ChessGameCodec.decode(storedGame)
+                : Json.fromJson(new String(storedGame, StandardCharsets.UTF_8), ChessGame.class);
         return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
     }
 
@@ -134,13 +154,53 @@ public class MySqlGameDAO implements SqlGameDAO, SqlDAO {
     }
 
     @Override
-    public void updateGame(int gameID, String game) throws ResponseException {
+    public void updateGame(int gameID, ChessGame game) throws ResponseException {
         GameData oldGame = getGame(gameID);
         if (oldGame == null) {
             throw new ResponseException(400, "Error: bad request");
         }
         var statement = "UPDATE games SET game=? WHERE gameID=?";
-        executeUpdate(statement, game, gameID);
+        executeUpdate(statement, ChessGameCodec.encode(game), gameID);
+    }
+
+    /**
+     * Inserts finished games in one batch and one transaction, for bulk imports. Game IDs are assigned by
+     * the table and the players' names are not users, so both seats are stored empty.
+     */
+    @Override
+    public void importGames(Collection<GameData> games) throws ResponseException {
+        var statement = "INSERT INTO games (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var ps = conn.prepareStatement(statement)) {
+                for (GameData game : games) {
+                    ps.setString(1, "");
+                    ps.setString(2, "");
+                    ps.setString(3, game.gameName());
+                    ps.setBytes(4, ChessGameCodec.encode(game.game()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                // Whatever went wrong, including a game that failed to encode, none of the batch is kept.
+                // Failing to clean up is reported alongside the original failure, not in place of it.
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException resetFailure) {
+                    e.addSuppressed(resetFailure);
+                }
+                throw e;
+            }
+            conn.setAutoCommit(true);
+        } catch (SQLException | RuntimeException e) {
+            throw new ResponseException(500, String.format("unable to update database: %s, %s", statement, e.getMessage()));
+        }
     }
 
     @Override
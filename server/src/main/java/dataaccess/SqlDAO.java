@@ -37,7 +37,7 @@ public interface SqlDAO {
               `whiteUsername` varchar(256) DEFAULT NULL,
               `blackUsername` varchar(256) DEFAULT NULL,
               `gameName` varchar(256) NOT NULL,
-              `game` TEXT NOT NULL,
+              `game` BLOB NOT NULL,
               PRIMARY KEY (`gameID`),
               INDEX(gameName)
             ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
@@ -67,6 +67,8 @@ public interface SqlDAO {
                         ps.setString(i + 1, p);
                     } else if (param instanceof Integer p) {
                         ps.setInt(i + 1, p);
+                    } else if (param instanceof byte[] p) {
+                        ps.setBytes(i + 1, p);
                     } else if (param == null) {
                         ps.setNull(i + 1, NULL);
                     }
@@ -1,5 +1,6 @@
 package dataaccess;
 
+import chess.ChessGame;
 import exception.ResponseException;
 import model.GameData;
 
@@ -12,6 +13,7 @@ public interface SqlGameDAO {
     Collection<GameData> listGames() throws ResponseException;
     boolean joinGame(String color, String username, int gameID) throws ResponseException;
     int getGameSize() throws ResponseException;
-    void updateGame(int gameID, String game) throws ResponseException;
+    void updateGame(int gameID, ChessGame game) throws ResponseException;
+    void importGames(Collection<GameData> games) throws ResponseException;
     void leaveGame(String color, int gameID) throws ResponseException;
 }
@@ -1,11 +1,12 @@
 package server;
 
-import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 import dataaccess.*;
 import exception.ResponseException;
 import model.UserData;
+import serialization.Json;
 import server.websocket.WebSocketHandler;
+import service.AnalysisService;
 import service.MySqlAuthService;
 import service.MySqlGameService;
 import service.MySqlUserService;
@@ -44,6 +45,9 @@ public class Server {
     private final MySqlUserService userService = new MySqlUserService(mySqlUserDAO, mySqlAuthDAO);
     private final MySqlGameService gameService = new MySqlGameService(mySqlGameDAO, mySqlAuthDAO);
     private final MySqlAuthService authService = new MySqlAuthService(mySqlAuthDAO);
+    // Half the cores search, leaving the rest for live games
+    private final AnalysisService analysisService = new AnalysisService(mySqlGameDAO, mySqlAuthDAO,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 16);
     private static class GameName {
         @SerializedName("gameName")
         private String gameName;
@@ -74,6 +78,7 @@ public class Server {
         Spark.get("/game", this::listGames);
         Spark.post("/game", this::createGame);
         Spark.put("/game", this::joinGame);
+        Spark.post("/analysis", this::analyze);
 
         Spark.exception(ResponseException.class, this::exceptionHandler);
 
@@ -82,6 +87,7 @@ public class Server {
     }
 
     public void stop() {
+        analysisService.shutdown();
         Spark.stop();
         Spark.awaitStop();
     }
@@ -96,27 +102,27 @@ public class Server {
         gameService.clear();
         authService.clear();
         var clearResult = new ClearResult("OK");
-        return new Gson().toJson(clearResult);
+        return Json.toJson(clearResult);
     }
 
     private Object register(Request req, Response res) throws ResponseException {
-        var user = new Gson().fromJson(req.body(), UserData.class);
+        var user = Json.fromJson(req.body(), UserData.class);
         var registerRequest = new MySqlUserService.RegisterRequest(user.username(), user.password(), user.email());
         var registerResult = userService.register(registerRequest);
-        return new Gson().toJson(registerResult);
+        return Json.toJson(registerResult);
     }
 
     private Object login(Request req, Response res) throws ResponseException {
-        var user = new Gson().fromJson(req.body(), UserData.class);
+        var user = Json.fromJson(req.body(), UserData.class);
         var loginRequest = new MySqlUserService.LoginRequest(user.username(), user.password());
         var loginResult = userService.login(loginRequest);
-        return new Gson().toJson(loginResult);
+        return Json.toJson(loginResult);
     }
 
     private Object logout(Request req, Response res) throws ResponseException {
         var logoutRequest = new MySqlUserService.LogoutRequest(req.headers("Authorization"));
         var logoutResult = userService.logout(logoutRequest);
-        return new Gson().toJson(logoutResult);
+        return Json.toJson(logoutResult);
     }
 
     private Object listGames(Request req, Response res) throws ResponseException {
@@ -124,20 +130,27 @@ public class Server {
         var listGamesResult = gameService.listGames(listGamesRequest);
         res.type("application/json");
         var list = listGamesResult.games().toArray();
-        return new Gson().toJson(Map.of("games", list));
+        return Json.toJson(Map.of("games", list));
     }
 
     private Object createGame(Request req, Response res) throws ResponseException {
-        var gameName = new Gson().fromJson(req.body(), GameName.class);
+        var gameName = Json.fromJson(req.body(), GameName.class);
         var createGameRequest = new MySqlGameService.CreateGameRequest(gameName.gameName);
         var createGameResult = gameService.createGame(createGameRequest, req.headers("Authorization"));
-        return new Gson().toJson(createGameResult);
+        return Json.toJson(createGameResult);
     }
 
     private Object joinGame(Request req, Response res) throws ResponseException {
-        var joinGame = new Gson().fromJson(req.body(), JoinGame.class);
+        var joinGame = Json.fromJson(req.body(), JoinGame.class);
         var joinGameRequest = new MySqlGameService.JoinGameRequest(joinGame.color, joinGame.gameID);
         var joinGameResult = gameService.joinGame(joinGameRequest, req.headers("Authorization"));
-        return new Gson().toJson(joinGameResult);
+        return Json.toJson(joinGameResult);
+    }
+
+    private Object analyze(Request req, Response res) throws ResponseException {
+        var analysisRequest = Json.fromJson(req.body(), AnalysisService.AnalysisRequest.class);
+        var analysisResult = analysisService.analyze(analysisRequest, req.headers("Authorization"));
+        res.type("application/json");
+        return Json.toJson(analysisResult);
     }
 }
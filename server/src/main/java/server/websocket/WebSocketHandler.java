@@ -1,9 +1,10 @@
 package server.websocket;
 
 import chess.ChessGame;
-import chess.ChessPosition;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
+import chess.notation.San;
+import chess.notation.Uci;
+import chess.piecemoves.MoveList;
 import dataaccess.MySqlAuthDAO;
 import dataaccess.MySqlGameDAO;
 import exception.ResponseException;
@@ -12,6 +13,7 @@ import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import serialization.Json;
 import websocket.commands.*;
 import websocket.messages.*;
 
@@ -25,27 +27,29 @@ public class WebSocketHandler {
     }
 
     private final ConnectionManager connections = new ConnectionManager();
+    // Moves generated while writing SAN; one per thread, as messages from different sessions arrive at once
+    private final ThreadLocal<MoveList> scratchMoves = ThreadLocal.withInitial(MoveList::new);
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
         try {
-            UserGameCommand command = new Gson().fromJson(message, UserGameCommand.class);
+            UserGameCommand command = Json.fromJson(message, UserGameCommand.class);
             String userName = getUserName(command.getAuthToken());
             switch (command.getCommandType()) {
                 case CONNECT -> {
-                    ConnectCommand connectCommand = new Gson().fromJson(message, ConnectCommand.class);
+                    ConnectCommand connectCommand = Json.fromJson(message, ConnectCommand.class);
                     connect(session, userName, connectCommand);
                 }
                 case MAKE_MOVE -> {
-                    MakeMoveCommand makeMoveCommand = new Gson().fromJson(message, MakeMoveCommand.class);
+                    MakeMoveCommand makeMoveCommand = Json.fromJson(message, MakeMoveCommand.class);
                     makeMove(session, userName, makeMoveCommand);
                 }
                 case LEAVE -> {
-                    LeaveGameCommand leaveGameCommand = new Gson().fromJson(message, LeaveGameCommand.class);
+                    LeaveGameCommand leaveGameCommand = Json.fromJson(message, LeaveGameCommand.class);
                     leaveGame(session, userName, leaveGameCommand);
                 }
                 case RESIGN -> {
-                    ResignCommand resignCommand = new Gson().fromJson(message, ResignCommand.class);
+                    ResignCommand resignCommand = Json.fromJson(message, ResignCommand.class);
                     resign(session, userName, resignCommand);
                 }
             }
@@ -98,7 +102,7 @@ public class WebSocketHandler {
             return;
         }
         connections.add(gamePair.gameID, userName, session);
-        var jsonGame = new Gson().toJson(gamePair.game.game());
+        var jsonGame = Json.toJson(gamePair.game.game());
         var loadGameMessage = new LoadGameMessage(jsonGame);
         sendMessage(session.getRemote(), loadGameMessage);
         String message;
@@ -118,6 +122,11 @@ public class WebSocketHandler {
         if (gamePair == null) {
             return;
         }
+        if (command.getMove() == null) {
+            var errorMessage = new  ErrorMessage("Error: bad request");
+            sendMessage(session.getRemote(), errorMessage);
+            return;
+        }
         if (!(userName.equals(gamePair.game.whiteUsername()) || userName.equals(gamePair.game.blackUsername()))) {
             var errorMessage = new  ErrorMessage("Error: observer cannot make move");
             sendMessage(session.getRemote(), errorMessage);
@@ -140,19 +149,19 @@ public class WebSocketHandler {
             sendMessage(session.getRemote(), errorMessage);
             return;
         }
-        var move = command.getMove();
-        ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
-        gamePair.game.game().makeMove(move);
+        ChessGame game = gamePair.game.game();
+        int move = game.legalMove(command.getMove());
+        // Written before the move is made, since SAN depends on the position it is made from
+        StringBuilder message = new StringBuilder(userName.length() + 32).append('\'').append(userName).append("' played ");
+        San.appendTo(message, game, move, scratchMoves.get()).append(" (");
+        Uci.appendTo(message, move).append(')');
+        game.makeMove(move);
         MySqlGameDAO mySqlGameDAO = new MySqlGameDAO();
-        mySqlGameDAO.updateGame(gamePair.gameID, new Gson().toJson(gamePair.game.game()));
-        var jsonGame = new Gson().toJson(gamePair.game.game());
+        mySqlGameDAO.updateGame(gamePair.gameID, game);
+        var jsonGame = Json.toJson(game);
         var loadGameMessage = new LoadGameMessage(jsonGame);
         connections.broadcast(gamePair.gameID, "", loadGameMessage);
-        String startStr = String.format("%c%d", 'a' + start.getColumn() - 1, start.getRow());
-        String endStr = String.format("%c%d", 'a' + end.getColumn() - 1, end.getRow());
-        String message = String.format("'%s' made a move from <%s> to <%s>", userName, startStr, endStr);
-        var notificationMessage = new NotificationMessage(message);
+        var notificationMessage = new NotificationMessage(message.toString());
         connections.broadcast(gamePair.gameID, userName, notificationMessage);
         String warning = null;
         if (gamePair.game.game().isInCheck(ChessGame.TeamColor.WHITE)) {
@@ -200,7 +209,7 @@ public class WebSocketHandler {
         }
         gamePair.game.game().setEnded();
         MySqlGameDAO mySqlGameDAO = new MySqlGameDAO();
-        mySqlGameDAO.updateGame(gamePair.gameID, new Gson().toJson(gamePair.game.game()));
+        mySqlGameDAO.updateGame(gamePair.gameID, gamePair.game.game());
         var message = String.format("'%s' resigned the game", userName);
         var notificationMessage = new NotificationMessage(message);
         connections.broadcast(gamePair.gameID, "", notificationMessage);
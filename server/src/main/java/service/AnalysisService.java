@@ -0,0 +1,260 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Fen;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.notation.Uci;
+import dataaccess.SqlAuthDAO;
+import dataaccess.SqlGameDAO;
+import exception.ResponseException;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs engine analysis for the server. Searches run on a small pool of worker threads with a bounded
+ * queue, never on the request threads, so heavy analysis cannot hold up live games. A request thread
+ * waits for its answer, but no more of them wait than there are workers and queue slots together:
+ * past that a request is turned away straight away. Every request has a deadline that covers both its
+ * time in the queue and its search, and one that expires in the queue never takes a worker.
+ */
+public class AnalysisService {
+
+    public record AnalysisRequest(Integer gameID, String fen, int depth, int millis) {}
+    public record AnalysisResult(String bestMove, int score, boolean mate, int depth, long nodes, long millis,
+                                 List<String> line) {}
+
+    public static final int DEFAULT_MILLIS = 1000;
+    public static final int MAX_MILLIS = 10_000;
+    // How long past the deadline to wait for a running search to notice it and return
+    private static final long GRACE_MILLIS = 500;
+    // Split between the workers, one table each
+    private static final int TABLE_MEGABYTES = 64;
+
+    /**
+     * One request's search, which a worker creates when it takes the request up. Either side may stop it
+     * first: a stop before the search exists is seen by the worker as soon as it creates it.
+     */
+    private static final class Job {
+        private volatile Search search;
+        private volatile boolean stopped;
+
+        void stop() {
+            stopped = true;
+            Search started = search;
+            if (started != null) {
+                started.stop();
+            }
+        }
+
+        void start(Search started) {
+            search = started;
+            if (stopped) {
+                started.stop();
+            }
+        }
+    }
+
+    private final SqlGameDAO gameDAO;
+    private final SqlAuthDAO authDAO;
+    private final ThreadPoolExecutor executor;
+    // Each worker keeps its own table, so one request starting a new search generation never ages the
+    // entries another request's search is still using
+    private final ThreadLocal<TranspositionTable> tables;
+    // Request threads allowed to wait for an answer: one per worker and one per queue slot
+    private final Semaphore waiting;
+    private final Set<Job> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong searchesStarted = new AtomicLong();
+
+    /**
+     * @param gameDAO   where to look up games by ID
+     * @param authDAO   where to check auth tokens
+     * @param threads   number of searches that may run at once
+     * @param queueSize number of requests that may wait for a free thread
+     */
+    public AnalysisService(SqlGameDAO gameDAO, SqlAuthDAO authDAO, int threads, int queueSize) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        int tableMegabytes = Math.max(1, TABLE_MEGABYTES / threads);
+        tables = ThreadLocal.withInitial(() -> new TranspositionTable(tableMegabytes));
+        waiting = new Semaphore(threads + queueSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Live games come first
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Analyzes a stored game's current position, or a position given in FEN
+     *
+     * @param request   game ID or FEN, plus optional depth and time limits
+     * @param authToken the caller's auth token
+     * @return best move, score and principal variation in coordinate notation
+     * @throws ResponseException 401 if not authorized, 400 for a bad request, 503 if the server is too busy
+     *                           or the deadline passed
+     */
+    public AnalysisResult analyze(AnalysisRequest request, String authToken) throws ResponseException {
+        if (authDAO.isAuthorized(authToken) == null) {
+            throw new ResponseException(401, "Error: unauthorized");
+        }
+        if (request == null || (request.gameID() == null) == (request.fen() == null)) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        ChessGame game;
+        if (request.fen() != null) {
+            try {
+                game = Fen.parse(request.fen());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseException(400, "Error: bad request");
+            }
+        } else {
+            GameData gameData = gameDAO.getGame(request.gameID());
+            if (gameData == null || gameData.game() == null) {
+                throw new ResponseException(400, "Error: bad request");
+            }
+            game = gameData.game();
+        }
+        return analyzePosition(game, request.depth(), request.millis());
+    }
+
+    /**
+     * Searches a position on the worker pool, waiting until the deadline at most. A request still queued
+     * at its deadline is taken off the queue without ever starting a search.
+     *
+     * @param game   the position to analyze; it is copied, not changed
+     * @param depth  deepest iteration to search, or 0 to search until the time runs out
+     * @param millis deadline in milliseconds, counting time spent in the queue; 0 for the default
+     * @return best move, score and principal variation in coordinate notation
+     * @throws ResponseException 400 for a bad limit, 503 if the queue is full or the deadline passed
+     */
+    public AnalysisResult analyzePosition(ChessGame game, int depth, int millis) throws ResponseException {
+        if (depth < 0 || millis < 0 || millis > MAX_MILLIS) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        if (!waiting.tryAcquire()) {
+            throw new ResponseException(503, "Error: analysis queue is full");
+        }
+        try {
+            return search(new ChessGame(game), depth, millis);
+        } finally {
+            waiting.release();
+        }
+    }
+
+    private AnalysisResult search(ChessGame position, int depth, int millis) throws ResponseException {
+        long timeLimit = (millis == 0) ? DEFAULT_MILLIS : millis;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+        Job job = new Job();
+
+        Future<SearchResult> future;
+        try {
+            future = executor.submit(() -> {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return null;  // Waited in the queue past the deadline
+                }
+                running.add(job);
+                try {
+                    Search search = new Search(position, tables.get());
+                    job.start(search);
+                    searchesStarted.incrementAndGet();
+                    return search.search(new SearchLimits(Math.min(depth, Search.MAX_PLY), 0, remaining));
+                } finally {
+                    running.remove(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseException(503, "Error: analysis queue is full");
+        }
+
+        SearchResult result = await(future, job, deadline);
+        if (result == null) {
+            throw new ResponseException(503, "Error: analysis timed out");
+        }
+
+        List<String> line = new ArrayList<>(result.principalVariation().size());
+        for (ChessMove move : result.principalVariation()) {
+            line.add(Uci.format(move));
+        }
+        return new AnalysisResult(result.bestMove() == null ? null : Uci.format(result.bestMove()), result.score(),
+                result.isMate(), result.depth(), result.nodes(), result.millis(), line);
+    }
+
+    /**
+     * Waits for a submitted search until its deadline. A task still in the queue then is removed straight
+     * away; a running search gets a short grace period to notice its own time limit.
+     */
+    private SearchResult await(Future<SearchResult> future, Job job, long deadline) throws ResponseException {
+        try {
+            try {
+                long wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                return future.get(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (executor.remove((Runnable) future)) {
+                    throw new ResponseException(503, "Error: analysis timed out");  // Never started
+                }
+                return future.get(GRACE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            cancel(future, job);
+            throw new ResponseException(503, "Error: analysis timed out");
+        } catch (CancellationException e) {
+            throw new ResponseException(503, "Error: analysis cancelled");
+        } catch (InterruptedException e) {
+            cancel(future, job);
+            Thread.currentThread().interrupt();
+            throw new ResponseException(503, "Error: analysis cancelled");
+        } catch (ExecutionException e) {
+            throw new ResponseException(500, String.format("Error: %s", e.getCause().getMessage()));
+        }
+    }
+
+    private void cancel(Future<SearchResult> future, Job job) {
+        job.stop();
+        future.cancel(false);
+        // Frees the queue slot now rather than when a worker reaches the cancelled task
+        executor.remove((Runnable) future);
+    }
+
+    /**
+     * @return Number of searches the workers have started, for tests
+     */
+    long searchesStarted() {
+        return searchesStarted.get();
+    }
+
+    /**
+     * Stops every running search and the worker threads; requests still waiting get a 503
+     */
+    public void shutdown() {
+        for (Runnable queued : executor.shutdownNow()) {
+            ((Future<?>) queued).cancel(false);
+        }
+        for (Job job : running) {
+            job.stop();
+        }
+    }
+}
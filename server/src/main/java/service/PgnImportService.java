@@ -0,0 +1,67 @@
+package service;
+
+import chess.notation.PgnGame;
+import chess.notation.PgnImporter;
+import chess.notation.PgnReader;
+import dataaccess.SqlGameDAO;
+import exception.ResponseException;
+import model.GameData;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk loads historical games from PGN into the games table. Games are played out in parallel by
+ * {@link PgnImporter}, and the legal ones are inserted in batches; games with an illegal move are skipped.
+ */
+public class PgnImportService {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_NAME_LENGTH = 256;
+
+    private final SqlGameDAO gameDAO;
+    private final int batchSize;
+
+    /**
+     * @param gameDAO   where to insert the games
+     * @param batchSize number of games per insert
+     */
+    public PgnImportService(SqlGameDAO gameDAO, int batchSize) {
+        this.gameDAO = gameDAO;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every game left in a reader
+     *
+     * @param reader where to read the games from
+     * @return how many games were read, imported and rejected, and how fast
+     * @throws IOException       if reading fails
+     * @throws ResponseException if inserting fails; games in earlier batches stay imported
+     */
+    public PgnImporter.Result importGames(PgnReader reader) throws IOException, ResponseException {
+        List<GameData> batch = new ArrayList<>(batchSize);
+        PgnImporter.Result result = new PgnImporter().run(reader, (pgn, game) -> {
+            batch.add(new GameData(0, null, null, gameName(pgn), game));
+            if (batch.size() >= batchSize) {
+                gameDAO.importGames(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            gameDAO.importGames(batch);
+        }
+        return result;
+    }
+
+    /**
+     * @return a name like "Carlsen, Magnus vs Nepomniachtchi, Ian (World Championship, 2021.12.03)"
+     */
+    static String gameName(PgnGame pgn) {
+        String name = String.format("%s vs %s (%s, %s)", pgn.tags().getOrDefault("White", "?"),
+                pgn.tags().getOrDefault("Black", "?"), pgn.tags().getOrDefault("Event", "?"),
+                pgn.tags().getOrDefault("Date", "?"));
+        return (name.length() > MAX_NAME_LENGTH) ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+}
@@ -1,11 +1,14 @@
 package dataaccess;
 
+import chess.ChessGame;
 import exception.ResponseException;
 import model.GameData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -114,4 +117,36 @@ public class MySqlGameDAOTest {
 
         assertEquals(0, gameDAO.getGameSize());
     }
+
+    @Test
+    public void importGamesPositive() throws ResponseException {
+        ChessGame game = new ChessGame();
+        game.setEnded();
+        gameDAO.importGames(List.of(new GameData(0, null, null, "imported1", game),
+                new GameData(0, null, null, "imported2", new ChessGame())));
+
+        assertEquals(2, gameDAO.getGameSize());
+        GameData result = gameDAO.listGames().iterator().next();
+        assertEquals("imported1", result.gameName());
+        assertTrue(result.game().isEnded());
+    }
+
+    @Test
+    public void importGamesNegative() {
+        List<GameData> noName = List.of(new GameData(0, null, null, null, new ChessGame()));
+        assertThrows(ResponseException.class, () -> gameDAO.importGames(noName));
+    }
+
+    @Test
+    public void importGamesRollsBack() throws ResponseException {
+        // The second game fails to encode after the first was added to the batch
+        List<GameData> games = new ArrayList<>();
+        games.add(new GameData(0, null, null, "imported1", new ChessGame()));
+        games.add(new GameData(0, null, null, "imported2", null));
+        assertThrows(ResponseException.class, () -> gameDAO.importGames(games));
+
+        assertEquals(0, gameDAO.getGameSize());
+        assertNotNull(gameDAO.createGame("afterRollback", "testtoken"));
+        assertEquals(1, gameDAO.getGameSize());
+    }
 }
@@ -0,0 +1,111 @@
+package service;
+
+import chess.ChessGame;
+import chess.Fen;
+import exception.ResponseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisServiceTests {
+    // No DAOs: these tests only analyze positions passed in directly
+    private final AnalysisService analysisService = new AnalysisService(null, null, 1, 1);
+
+    @AfterEach
+    void shutdown() {
+        analysisService.shutdown();
+    }
+
+    @Test
+    void analyzePositionPositiveTest() throws ResponseException {
+        ChessGame game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        AnalysisService.AnalysisResult result = analysisService.analyzePosition(game, 3, 2000);
+
+        assertEquals("a1a8", result.bestMove());
+        assertTrue(result.mate());
+        assertTrue(result.depth() >= 1);
+        assertEquals("a1a8", result.line().get(0));
+    }
+
+    @Test
+    void analyzePositionNegativeTest() {
+        ChessGame game = new ChessGame();
+        ResponseException tooLong = assertThrows(ResponseException.class,
+                () -> analysisService.analyzePosition(game, 0, AnalysisService.MAX_MILLIS + 1));
+        assertEquals(400, tooLong.statusCode());
+        assertThrows(ResponseException.class, () -> analysisService.analyzePosition(game, -1, 0));
+    }
+
+    @Test
+    void fullQueueRejectedTest() throws InterruptedException {
+        // One search running and one waiting fill the pool; the next request is turned away
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                try {
+                    analysisService.analyzePosition(new ChessGame(), 0, 3000);
+                } catch (ResponseException ignored) {
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        started.await();
+        Thread.sleep(200);
+
+        // Turned away before it waits, not when its deadline passes
+        long start = System.nanoTime();
+        ResponseException busy = assertThrows(ResponseException.class,
+                () -> analysisService.analyzePosition(new ChessGame(), 0, 3000));
+        assertEquals(503, busy.statusCode());
+        assertTrue(System.nanoTime() - start < 100_000_000L, "a full service should not park the request thread");
+    }
+
+    @Test
+    void shutdownCancelsAnalysisTest() throws InterruptedException {
+        ResponseException[] failure = new ResponseException[1];
+        Thread thread = new Thread(() -> {
+            try {
+                analysisService.analyzePosition(new ChessGame(), 0, 5000);
+            } catch (ResponseException e) {
+                failure[0] = e;
+            }
+        });
+        thread.start();
+        Thread.sleep(200);
+        long start = System.nanoTime();
+        analysisService.shutdown();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L, "shutdown should stop the search early");
+        assertNull(failure[0], "a stopped search still returns its best move so far");
+    }
+
+    @Test
+    void expiredQueuedRequestNeverSearchesTest() throws InterruptedException {
+        Thread busy = new Thread(() -> {
+            try {
+                analysisService.analyzePosition(new ChessGame(), 0, 1500);
+            } catch (ResponseException ignored) {
+            }
+        });
+        busy.start();
+        Thread.sleep(200);
+
+        // Queued behind the busy worker until well past its deadline
+        long start = System.nanoTime();
+        ResponseException expired = assertThrows(ResponseException.class,
+                () -> analysisService.analyzePosition(new ChessGame(), 0, 200));
+        long waited = System.nanoTime() - start;
+        assertEquals(503, expired.statusCode());
+        assertTrue(waited < 450_000_000L, "an expired queued request should not wait out the grace period");
+
+        busy.join(5000);
+        assertEquals(1, analysisService.searchesStarted());
+    }
+}
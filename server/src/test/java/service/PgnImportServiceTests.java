@@ -0,0 +1,142 @@
+package service;
+
+import chess.ChessGame;
+import chess.notation.PgnImporter;
+import chess.notation.PgnReader;
+import dataaccess.SqlGameDAO;
+import exception.ResponseException;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnImportServiceTests {
+
+    private static final String GAMES = """
+            [Event "One"]
+            [White "A"]
+            [Black "B"]
+
+            1. e4 e5 2. Nf3 Nc6 1-0
+
+            [Event "Two"]
+            [White "C"]
+            [Black "D"]
+
+            1. d4 d5 1/2-1/2
+
+            [Event "Three"]
+            [White "E"]
+            [Black "F"]
+
+            1. e4 e5 2. Ke3 0-1
+
+            [Event "Four"]
+            [White "G"]
+            [Black "H"]
+
+            1. c4 *
+            """;
+
+    /**
+     * Keeps imported games in memory, a batch at a time like one transaction: a failing batch saves nothing
+     */
+    private static class BatchGameDAO implements SqlGameDAO {
+        private final List<GameData> saved = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final int failingBatch;
+
+        BatchGameDAO(int failingBatch) {
+            this.failingBatch = failingBatch;
+        }
+
+        @Override
+        public void importGames(Collection<GameData> games) throws ResponseException {
+            batchSizes.add(games.size());
+            if (batchSizes.size() == failingBatch) {
+                throw new ResponseException(500, "unable to update database");
+            }
+            saved.addAll(games);
+        }
+
+        @Override
+        public void clear() {
+            saved.clear();
+        }
+
+        @Override
+        public Collection<GameData> listGames() {
+            return saved;
+        }
+
+        @Override
+        public int getGameSize() {
+            return saved.size();
+        }
+
+        @Override
+        public GameData createGame(String gameName, String authToken) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GameData getGame(int gameID) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean joinGame(String color, String username, int gameID) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateGame(int gameID, ChessGame game) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void leaveGame(String color, int gameID) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static List<String> names(Collection<GameData> games) {
+        List<String> names = new ArrayList<>();
+        for (GameData game : games) {
+            names.add(game.gameName());
+        }
+        return names;
+    }
+
+    @Test
+    void importGamesPositiveTest() throws IOException, ResponseException {
+        BatchGameDAO gameDAO = new BatchGameDAO(0);
+        PgnImporter.Result result = new PgnImportService(gameDAO, 2).importGames(new PgnReader(new StringReader(GAMES)));
+
+        assertEquals(4, result.games());
+        assertEquals(3, result.imported());
+        assertEquals(1, result.rejected());
+        // Three legal games in batches of two: one full batch, then the rest
+        assertEquals(List.of(2, 1), gameDAO.batchSizes);
+        assertEquals(List.of("A vs B (One, ?)", "C vs D (Two, ?)", "G vs H (Four, ?)"), names(gameDAO.listGames()));
+        GameData first = gameDAO.listGames().iterator().next();
+        assertEquals(4, first.game().getPly());
+        assertTrue(first.game().isEnded());
+        assertFalse(gameDAO.saved.get(2).game().isEnded());
+    }
+
+    @Test
+    void importGamesNegativeTest() {
+        // The second batch fails as a whole; the first stays imported
+        BatchGameDAO gameDAO = new BatchGameDAO(2);
+        assertThrows(ResponseException.class,
+                () -> new PgnImportService(gameDAO, 2).importGames(new PgnReader(new StringReader(GAMES))));
+        assertEquals(List.of("A vs B (One, ?)", "C vs D (Two, ?)"), names(gameDAO.listGames()));
+    }
+}
@@ -1,7 +1,8 @@
 package chess;
 
+import chess.piecemoves.AttackTables;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -13,10 +14,38 @@ public class ChessBoard {
 
     private final ChessPiece[][] board = new ChessPiece[8][8];
 
+    // Bitboards mirroring the board array, bit n set means square n is occupied (a1 = 0, h8 = 63)
+    private final transient long[] pieceBitboards = new long[12];
+    private final transient long[] colorBitboards = new long[2];
+    private transient long occupied;
+    private transient long zobristKey;
+    // Piece-square evaluation from white's side and game phase, kept up to date by addPiece
+    private transient int middlegameScore;
+    private transient int endgameScore;
+    private transient int phase;
+
     public ChessBoard() {
         
     }
 
+    /**
+     * Creates a copy of another board, sharing only the immutable pieces
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(other.board[row], 0, board[row], 0, 8);
+        }
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+        occupied = other.occupied;
+        zobristKey = other.zobristKey;
+        middlegameScore = other.middlegameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -24,7 +53,39 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        addPiece(position.getSquare(), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, replacing whatever was on the square
+     *
+     * @param square where to add the piece to (0 ~ 63)
+     * @param piece  the piece to add, or null to clear the square
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        ChessPiece oldPiece = board[square >>> 3][square & 7];
+        long bit = 1L << square;
+        if (oldPiece != null) {
+            int oldIndex = oldPiece.getPieceIndex();
+            pieceBitboards[oldIndex] &= ~bit;
+            zobristKey ^= Zobrist.pieceKey(oldIndex, square);
+            middlegameScore -= PieceSquareTables.middlegame(oldIndex, square);
+            endgameScore -= PieceSquareTables.endgame(oldIndex, square);
+            phase -= PieceSquareTables.phase(oldIndex);
+            colorBitboards[oldPiece.getTeamColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+        }
+        if (piece != null) {
+            int index = piece.getPieceIndex();
+            pieceBitboards[index] |= bit;
+            zobristKey ^= Zobrist.pieceKey(index, square);
+            middlegameScore += PieceSquareTables.middlegame(index, square);
+            endgameScore += PieceSquareTables.endgame(index, square);
+            phase += PieceSquareTables.phase(index);
+            colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+            occupied |= bit;
+        }
+        board[square >>> 3][square & 7] = piece;
     }
 
     /**
@@ -38,50 +99,153 @@ public class ChessBoard {
         return board[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param square The square to get the piece from (0 ~ 63)
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /**
+     * @param color which team the pieces belong to
+     * @param type  which type of piece
+     * @return Bitboard of every square holding that kind of piece
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @param color which team the pieces belong to
+     * @return Bitboard of every square holding a piece of that team
+     */
+    public long getPieces(ChessGame.TeamColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return Bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @return Zobrist key of the pieces on the board, kept up to date by every addPiece
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return Tapered material and piece-square score in centipawns, positive when white is ahead.
+     * Kept up to date by every addPiece, so this never scans the board.
+     */
+    public int getPieceSquareScore() {
+        return PieceSquareTables.taper(middlegameScore, endgameScore, phase);
+    }
+
+    /**
+     * Finds the king of the given team
+     *
+     * @param color which team's king to find
+     * @return Square index of the king, or -1 if the team has no king on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long king = pieceBitboards[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return (king == 0) ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Finds every piece of a team attacking a square, looking outwards from the square along
+     * rook and bishop rays and at the knight, king and pawn squares around it
+     *
+     * @param square   the square being attacked (0 ~ 63)
+     * @param byColor  which team's attackers to find
+     * @param occupied occupancy to use for blocking the rays, normally {@link #getOccupied()}
+     * @return Bitboard of the attacking pieces
+     */
+    public long getAttackers(int square, ChessGame.TeamColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        long bishops = pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return (AttackTables.rookAttacks(square, occupied) & rooks)
+                | (AttackTables.bishopAttacks(square, occupied) & bishops)
+                | (AttackTables.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (AttackTables.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                // A pawn attacks this square if a pawn of the other team here would attack it back
+                | (AttackTables.pawnAttacks(byColor.opponent(), square)
+                        & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()]);
+    }
+
+    /**
+     * @param square  the square being attacked (0 ~ 63)
+     * @param byColor which team may be attacking it
+     * @return True if any piece of the team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return getAttackers(square, byColor, occupied) != 0;
+    }
+
+    /**
+     * @return Index (0 ~ 11) of a kind of piece into the per-piece bitboards
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
         // Clear all pieces, make all squares into null
-        for (int row = 1; row < 9; row++) {
-            for (int column = 1; column < 9; column++) {
-                ChessPosition position = new ChessPosition(row, column);
-                addPiece(position, null);
-            }
+        for (ChessPiece[] row : board) {
+            Arrays.fill(row, null);
         }
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
 
         // Add White pawns
         for (int column = 1; column < 9; column++) {
-            ChessPosition position = new ChessPosition(2, column);
-            addPiece(position, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            ChessPosition position = ChessPosition.of(2, column);
+            addPiece(position, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
         // Add Black pawns
         for (int column = 1; column < 9; column++) {
-            ChessPosition position = new ChessPosition(7, column);
-            addPiece(position, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            ChessPosition position = ChessPosition.of(7, column);
+            addPiece(position, ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 
         // Add other white pieces
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
 
         // Add other black pieces
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
 
     }
 
@@ -91,12 +255,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return zobristKey == that.zobristKey && Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(zobristKey);
     }
 
     @Override
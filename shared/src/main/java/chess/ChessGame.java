@@ -1,27 +1,95 @@
 package chess;
 
-import com.google.gson.Gson;
+import chess.piecemoves.AttackTables;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import serialization.Json;
 
 import java.util.*;
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
+ * Methods that only look at the game (validMoves, generateLegalMoves, isInCheck, isInCheckmate, ...)
+ * do not change it, so several threads may call them at once as long as none of them is making a move.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessGame {
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights kept after a move touches each square, so moving or capturing a king or rook drops its rights
+    private static final int[] CASTLING_MASKS = new int[64];
+    static {
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING);
+        CASTLING_MASKS[0] = ALL_CASTLING & ~WHITE_QUEEN_SIDE;
+        CASTLING_MASKS[4] = ALL_CASTLING & ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASKS[7] = ALL_CASTLING & ~WHITE_KING_SIDE;
+        CASTLING_MASKS[56] = ALL_CASTLING & ~BLACK_QUEEN_SIDE;
+        CASTLING_MASKS[60] = ALL_CASTLING & ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[63] = ALL_CASTLING & ~BLACK_KING_SIDE;
+    }
+
+    // Undo stacks grow as moves are made; start small, since bulk loaders keep millions of games around
+    private static final int INITIAL_STACK_SIZE = 16;
+
     private TeamColor teamTurn = TeamColor.WHITE;
     private ChessBoard board;
-    private ChessPosition pieceEnPassant = new ChessPosition(0, 0);
-    private final Map<ChessPosition, ChessPiece> castlingPieces = new HashMap<>();
+    private int castlingRights = ALL_CASTLING;
+    private int enPassantSquare = -1;
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
     private boolean ended = false;
 
+    // Undo stack, one entry per move made: the packed move, a packed record of the state
+    // it replaced and the piece it captured (see pushUndo), and the position key before the move
+    private transient int[] moveStack = new int[INITIAL_STACK_SIZE];
+    private transient long[] undoStack = new long[INITIAL_STACK_SIZE];
+    private transient long[] keyStack = new long[INITIAL_STACK_SIZE];
+    private transient int ply = 0;
+    // Lowest ply from which keyStack is filled in. A restored history (see restoreHistory) starts with only
+    // the keys repetition detection can reach; older ones are worked out when a move is taken back past them.
+    private transient int keysKnownFrom = 0;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
-        addCastlingPieces(TeamColor.WHITE);
-        addCastlingPieces(TeamColor.BLACK);
+    }
+
+    /**
+     * Creates a game on a board without setting up the starting position first, inferring the castling
+     * rights as {@link #setBoard} does; for readers that build the board themselves
+     *
+     * @param board the board to play on
+     */
+    ChessGame(ChessBoard board) {
+        setBoard(board);
+    }
+
+    /**
+     * Creates an independent copy of another game, including its undo history, so the copy can be
+     * searched or played on without touching the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        ended = other.ended;
+        moveStack = other.moveStack.clone();
+        undoStack = other.undoStack.clone();
+        keyStack = other.keyStack.clone();
+        ply = other.ply;
+        keysKnownFrom = other.keysKnownFrom;
     }
 
     /**
@@ -45,131 +113,163 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return (this == WHITE) ? BLACK : WHITE;
+        }
     }
 
     public boolean isEnded() { return ended; }
 
     public void setEnded() { ended = true; }
 
-    private boolean canMakeEnPassantMove (ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            return startPosition.getRow() == pieceEnPassant.getRow() &&
-                    (Math.abs(startPosition.getColumn() - pieceEnPassant.getColumn()) == 1);
+    /**
+     * @return Castling rights still available, as a combination of the castling constants
+     */
+    public int getCastlingRights() { return castlingRights; }
+
+    /**
+     * @return Square a pawn may capture onto en passant this turn, or -1 if there is none
+     */
+    public int getEnPassantSquare() { return enPassantSquare; }
+
+    /**
+     * @return Number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() { return halfmoveClock; }
+
+    /**
+     * @return Number of the current full move, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber() { return fullmoveNumber; }
+
+    /**
+     * Appends the pseudo-legal moves of the piece on a square, including castling and en passant
+     */
+    private void pseudoLegalMoves(int square, ChessPiece piece, MoveList moves) {
+        piece.pieceMoves(board, square, moves);
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            addCastlingMoves(square, piece.getTeamColor(), moves);
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN && enPassantSquare >= 0) {
+            // The en passant square is on row 6 when white may capture and on row 3 when black may capture
+            int captureRow = (piece.getTeamColor() == TeamColor.WHITE) ? 5 : 2;
+            if ((enPassantSquare >>> 3) == captureRow && (square >>> 3) == captureRow + ((captureRow == 5) ? -1 : 1)
+                    && Math.abs((square & 7) - (enPassantSquare & 7)) == 1) {
+                moves.add(PackedMove.of(square, enPassantSquare, PackedMove.EN_PASSANT));
+            }
         }
-        return false;
     }
 
-    private ChessPosition getEnPassantPosition (ChessPiece piece) {
-        if (piece == null) {
-            return null;
+    /**
+     * Appends castling moves for a king. The king may not castle out of or through check; landing in check is
+     * left to the legality filter like any other king move.
+     */
+    private void addCastlingMoves(int square, TeamColor color, MoveList moves) {
+        int kingSide = (color == TeamColor.WHITE) ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+        int queenSide = (color == TeamColor.WHITE) ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+        int homeSquare = (color == TeamColor.WHITE) ? 4 : 60;
+        TeamColor enemy = color.opponent();
+        if (square != homeSquare || (castlingRights & (kingSide | queenSide)) == 0
+                || board.isSquareAttacked(square, enemy)) {
+            return;
         }
-        if (piece.getTeamColor() == TeamColor.WHITE) {
-            return new ChessPosition(pieceEnPassant.getRow() + 1, pieceEnPassant.getColumn());
-        } else {
-            return new ChessPosition(pieceEnPassant.getRow() - 1, pieceEnPassant.getColumn());
+        long occupied = board.getOccupied();
+        if ((castlingRights & kingSide) != 0 && hasCastlingRook(color, square + 3)
+                && (occupied & (0b11L << (square + 1))) == 0 && !board.isSquareAttacked(square + 1, enemy)) {
+            moves.add(PackedMove.of(square, square + 2, PackedMove.CASTLE));
+        }
+        if ((castlingRights & queenSide) != 0 && hasCastlingRook(color, square - 4)
+                && (occupied & (0b111L << (square - 3))) == 0 && !board.isSquareAttacked(square - 1, enemy)) {
+            moves.add(PackedMove.of(square, square - 2, PackedMove.CASTLE));
         }
     }
 
-    private boolean isEnPassant (ChessPiece pawn, ChessPosition newPosition) {
-        if (pawn == null) {
-            return false;
-        }
-        Map<ChessPosition, ChessPiece> enemyMap;
-        if (pawn.getTeamColor() == TeamColor.WHITE) {
-            enemyMap = getPieceMapByColor(TeamColor.BLACK);
-        } else {
-            enemyMap = getPieceMapByColor(TeamColor.WHITE);
-        }
-        for (Map.Entry<ChessPosition, ChessPiece> item : enemyMap.entrySet()) {
-            ChessPiece piece = item.getValue();
-            ChessPosition piecePosition = item.getKey();
-            if ((piece.getPieceType() == ChessPiece.PieceType.PAWN) &&
-                    (Math.abs(piecePosition.getColumn() - newPosition.getColumn()) == 1) &&
-                    (piecePosition.getRow() == newPosition.getRow())) {
-                    return true;
-            }
-        }
-        return false;
+    private boolean hasCastlingRook(TeamColor color, int square) {
+        ChessPiece rook = board.getPiece(square);
+        return rook != null && rook.getTeamColor() == color && rook.getPieceType() == ChessPiece.PieceType.ROOK;
     }
 
-    private boolean kingCannotMoveTo(ChessPosition startPosition, ChessPosition endPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-        ChessPiece midPiece = board.getPiece(endPosition);
-        if (midPiece != null) {
-            return true;
-        } else {
-            ChessPiece tempPiece = board.getPiece(endPosition);
-            board.addPiece(startPosition, null);
-            board.addPiece(endPosition, piece);
-            if (isInCheck(piece.getTeamColor())) {
-                board.addPiece(endPosition, tempPiece);
-                board.addPiece(startPosition, piece);
-                return true;
-            }
-            board.addPiece(endPosition, tempPiece);
-            board.addPiece(startPosition, piece);
+    /**
+     * Finds the enemy pieces giving check to a team's king
+     *
+     * @param teamColor which team's king to look at
+     * @return Bitboard of the checking pieces, 0 if not in check or the team has no king
+     */
+    public long getCheckers(TeamColor teamColor) {
+        int kingSquare = board.getKingSquare(teamColor);
+        if (kingSquare < 0) {
+            return 0L;
         }
-        return false;
+        return board.getAttackers(kingSquare, teamColor.opponent(), board.getOccupied());
     }
 
-    private ArrayList<ChessMove> getCastlingMoves(ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-        boolean leftRookFound = false;
-        boolean rightRookFound = false;
-        for (Map.Entry<ChessPosition, ChessPiece> map : castlingPieces.entrySet()) {
-            if (map.getValue().getTeamColor() == piece.getTeamColor() &&
-            map.getValue().getPieceType() == ChessPiece.PieceType.ROOK) {
-                if (map.getKey().getColumn() == 1) {
-                    leftRookFound = true;
-                }
-                if (map.getKey().getColumn() == 8) {
-                    rightRookFound = true;
-                }
+    /**
+     * Finds a team's pieces that are pinned to their king, i.e. the only piece between the king and
+     * an enemy rook, bishop or queen
+     *
+     * @param teamColor which team's pinned pieces to find
+     * @return Bitboard of the pinned pieces, 0 if none or the team has no king
+     */
+    public long getPinnedPieces(TeamColor teamColor) {
+        int kingSquare = board.getKingSquare(teamColor);
+        if (kingSquare < 0) {
+            return 0L;
+        }
+        TeamColor enemy = teamColor.opponent();
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+        // Enemy sliders that would attack the king if nothing stood in between
+        long snipers = (AttackTables.rookAttacks(kingSquare, 0L)
+                            & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(kingSquare, 0L)
+                            & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long occupied = board.getOccupied();
+        long pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = AttackTables.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.getPieces(teamColor);
             }
         }
-        if (!leftRookFound && !rightRookFound) {
-            return null;
-        }
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        if ((castlingPieces.containsKey(startPosition)) && (castlingPieces.get(startPosition).equals(piece))) {
-            if (leftRookFound) {
-                boolean isQueenSideWorking = true;
-                for (int i = startPosition.getColumn() - 1; i > 1; i--) {
-                    ChessPosition newPosition = new ChessPosition(startPosition.getRow(), i);
-                    if (kingCannotMoveTo(startPosition, newPosition)) {
-                        isQueenSideWorking = false;
-                        break;
-                    }
-                }
-                if (isQueenSideWorking) {
-                    ChessPosition newPosition = new ChessPosition(startPosition.getRow(), 3);
-                    if (!kingCannotMoveTo(startPosition, newPosition)) {
-                        ChessMove newMove = new ChessMove(startPosition, newPosition, null);
-                        moves.add(newMove);
-                    }
-                }
+        return pinned;
+    }
+
+    /**
+     * Determines if a pseudo-legal move leaves the mover's king safe, using the checkers and pinned
+     * pieces of the position instead of making the move
+     */
+    private boolean isLegal(int move, ChessPiece piece, int kingSquare, long checkers, long pinned) {
+        if (kingSquare < 0) {
+            return true;  // Nothing to keep safe
+        }
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        TeamColor enemy = piece.getTeamColor().opponent();
+        if (from == kingSquare) {
+            // The king may not step onto an attacked square, including squares behind it on a checking ray
+            return board.getAttackers(to, enemy, board.getOccupied() & ~(1L << from)) == 0;
+        }
+        if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+            // Two pawns leave the row at once, so check the resulting position directly
+            long capturedBit = 1L << (to + ((piece.getTeamColor() == TeamColor.WHITE) ? -8 : 8));
+            long occupied = (board.getOccupied() & ~(1L << from) & ~capturedBit) | (1L << to);
+            return (board.getAttackers(kingSquare, enemy, occupied) & ~capturedBit) == 0;
+        }
+        if (checkers != 0) {
+            if ((checkers & (checkers - 1)) != 0) {
+                return false;  // Only the king can answer a double check
             }
-            if (rightRookFound) {
-                boolean isKingSideWorking = true;
-                for (int i = startPosition.getColumn() + 1; i < 8; i++) {
-                    ChessPosition newPosition = new ChessPosition(startPosition.getRow(), i);
-                    if (kingCannotMoveTo(startPosition, newPosition)) {
-                        isKingSideWorking = false;
-                        break;
-                    }
-                }
-                if (isKingSideWorking) {
-                    ChessPosition newPosition = new ChessPosition(startPosition.getRow(), 7);
-                    if (!kingCannotMoveTo(startPosition, newPosition)) {
-                        ChessMove newMove = new ChessMove(startPosition, newPosition, null);
-                        moves.add(newMove);
-                    }
-                }
+            // Capture the checker or block between it and the king
+            int checker = Long.numberOfTrailingZeros(checkers);
+            if (((checkers | AttackTables.between(kingSquare, checker)) & (1L << to)) == 0) {
+                return false;
             }
         }
-        return moves;
+        // A pinned piece may only move along the line through the king
+        return (pinned & (1L << from)) == 0 || (AttackTables.line(kingSquare, from) & (1L << to)) != 0;
     }
 
     /**
@@ -184,33 +284,106 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        for (ChessMove move : piece.pieceMoves(board, startPosition)) {
-            ChessPosition piecePosition = move.getStartPosition();
-            ChessPosition newPosition = move.getEndPosition();
-            ChessPiece tempPiece = board.getPiece(newPosition);
-            board.addPiece(piecePosition, null);
-            board.addPiece(newPosition, piece);
-            if (!isInCheck(piece.getTeamColor())) {
-                moves.add(move);
+        MoveList packedMoves = new MoveList();
+        validMoves(startPosition.getSquare(), packedMoves);
+        ArrayList<ChessMove> moves = new ArrayList<>(packedMoves.size());
+        for (int i = 0; i < packedMoves.size(); i++) {
+            moves.add(PackedMove.toChessMove(packedMoves.get(i)));
+        }
+        return moves;
+    }
+
+    /**
+     * Appends the valid moves for a piece on the given square as packed ints (see {@link PackedMove})
+     *
+     * @param square the square of the piece to get valid moves for (0 ~ 63)
+     * @param moves  list to append the moves to; nothing is added if the square is empty
+     */
+    public void validMoves(int square, MoveList moves) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null) {
+            return;
+        }
+        TeamColor color = piece.getTeamColor();
+        appendLegalMoves(square, piece, board.getKingSquare(color), getCheckers(color), getPinnedPieces(color), moves);
+    }
+
+    /**
+     * Appends every legal move of the team to move as packed ints (see {@link PackedMove})
+     *
+     * @param moves list to append the moves to
+     */
+    public void generateLegalMoves(MoveList moves) {
+        generateLegalMoves(teamTurn, moves);
+    }
+
+    /**
+     * Appends every legal move of a team as packed ints (see {@link PackedMove}). The king, checkers and
+     * pinned pieces are found once for the whole team rather than once per piece.
+     *
+     * @param teamColor which team to generate moves for
+     * @param moves     list to append the moves to
+     */
+    public void generateLegalMoves(TeamColor teamColor, MoveList moves) {
+        int kingSquare = board.getKingSquare(teamColor);
+        long checkers = getCheckers(teamColor);
+        long pinned = getPinnedPieces(teamColor);
+        // In double check only the king can move
+        long pieces = ((checkers & (checkers - 1)) != 0) ? 1L << kingSquare : board.getPieces(teamColor);
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            appendLegalMoves(square, board.getPiece(square), kingSquare, checkers, pinned, moves);
+        }
+    }
+
+    /**
+     * Determines if a team has at least one legal move, stopping at the first one found
+     *
+     * @param teamColor which team to look at
+     * @return True if the team can make any move
+     */
+    public boolean hasLegalMove(TeamColor teamColor) {
+        int kingSquare = board.getKingSquare(teamColor);
+        long checkers = getCheckers(teamColor);
+        long pinned = getPinnedPieces(teamColor);
+        long pieces = board.getPieces(teamColor);
+        MoveList moves = new MoveList(32);
+        if (kingSquare >= 0) {
+            // Try the king first: it is the only piece that can answer a double check, and it usually has a move
+            pieces = ((checkers & (checkers - 1)) != 0) ? 0L : pieces & ~(1L << kingSquare);
+            if (appendLegalMoves(kingSquare, board.getPiece(kingSquare), kingSquare, checkers, pinned, moves)) {
+                return true;
             }
-            board.addPiece(newPosition, tempPiece);
-            board.addPiece(piecePosition, piece);
         }
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            ArrayList<ChessMove> castleMoves = getCastlingMoves(startPosition);
-            if (castleMoves != null) {
-                moves.addAll(castleMoves);
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            moves.clear();
+            if (appendLegalMoves(square, board.getPiece(square), kingSquare, checkers, pinned, moves)) {
+                return true;
             }
         }
-        if (!pieceEnPassant.equals(new ChessPosition(0, 0))) {
-            if (canMakeEnPassantMove(startPosition)) {
-                ChessPosition newPosition = getEnPassantPosition(piece);
-                ChessMove newMove = new ChessMove(startPosition, newPosition, null);
-                moves.add(newMove);
+        return false;
+    }
+
+    /**
+     * Appends the legal moves of one piece, given the king, checkers and pinned pieces of its team
+     *
+     * @return True if any move was appended
+     */
+    private boolean appendLegalMoves(int square, ChessPiece piece, int kingSquare, long checkers, long pinned,
+                                     MoveList moves) {
+        int start = moves.size();
+        pseudoLegalMoves(square, piece, moves);
+        // Keep only the moves that do not leave our own king in check, compacting in place
+        int legal = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(move, piece, kingSquare, checkers, pinned)) {
+                moves.set(legal++, move);
             }
         }
-        return moves;
+        moves.truncate(legal);
+        return legal > start;
     }
 
     /**
@@ -223,6 +396,17 @@ public class ChessGame {
         if (move == null) {
             return;
         }
+        makeMove(legalMove(move));
+    }
+
+    /**
+     * Finds the legal packed move (see {@link PackedMove}) that a ChessMove describes, with its flags
+     *
+     * @param move the move to look for
+     * @return the packed move, ready for {@link #makeMove(int)}
+     * @throws InvalidMoveException if the move is not legal for the team to move
+     */
+    public int legalMove(ChessMove move) throws InvalidMoveException {
         ChessPiece piece = board.getPiece(move.getStartPosition());
         if (piece == null) {
             throw new InvalidMoveException("There is no piece to move");
@@ -230,245 +414,420 @@ public class ChessGame {
         if (piece.getTeamColor() != getTeamTurn()) {
             throw new InvalidMoveException("Wrong turn");
         }
-        ChessPosition myPosition = move.getStartPosition();
-        ChessPosition newPosition = move.getEndPosition();
-        ArrayList<ChessPosition> newPositions = new ArrayList<>();
-        for (ChessMove newMove : piece.pieceMoves(board, myPosition)) {
-            newPositions.add(newMove.getEndPosition());
-        }
-        if (!pieceEnPassant.equals(new ChessPosition(0, 0))) {
-            if (canMakeEnPassantMove(myPosition)) {
-                newPosition = getEnPassantPosition(piece);
-                board.addPiece(pieceEnPassant, null);
-                pieceEnPassant = new ChessPosition(0, 0);
-                newPositions.add(newPosition);
-            } else {
-                pieceEnPassant = new ChessPosition(0, 0);
+        MoveList moves = new MoveList();
+        validMoves(move.getStartPosition().getSquare(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.matches(moves.get(i), move)) {
+                return moves.get(i);
             }
         }
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            ArrayList<ChessMove> castleMoves = getCastlingMoves(myPosition);
-            if (castleMoves != null) {
-                for (ChessMove newMove : castleMoves) {
-                    newPositions.add(newMove.getEndPosition());
-                }
-            }
+        throw new InvalidMoveException("Move is not allowed");
+    }
+
+    /**
+     * Makes a packed move (see {@link PackedMove}) without checking that it is valid, and pushes
+     * what it changed onto the undo stack so {@link #unmakeMove()} can take it back.
+     * Moves should come from {@link #validMoves(int, MoveList)}.
+     *
+     * @param move the packed move to make
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(from);
+        TeamColor color = piece.getTeamColor();
+        int captureSquare = PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ?
+                                            to + ((color == TeamColor.WHITE) ? -8 : 8) : to;
+        ChessPiece captured = board.getPiece(captureSquare);
+        pushUndo(move, captured);
+
+        if (captured != null) {
+            board.addPiece(captureSquare, null);
+        }
+        board.addPiece(from, null);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        board.addPiece(to, (promotion == null) ? piece : ChessPiece.of(color, promotion));
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            // The rook jumps over the king: h-file rook to the f-file, a-file rook to the d-file
+            int rookFrom = (to > from) ? to + 1 : to - 2;
+            int rookTo = (to > from) ? to - 1 : to + 1;
+            board.addPiece(rookTo, board.getPiece(rookFrom));
+            board.addPiece(rookFrom, null);
         }
-        if (!newPositions.contains(move.getEndPosition())) {
-            throw new InvalidMoveException("Move is not allowed");
+
+        castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        enPassantSquare = -1;
+        if (PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH) && canBeCapturedEnPassant((from + to) >>> 1, color)) {
+            enPassantSquare = (from + to) >>> 1;
         }
-        ChessPiece tempPiece = board.getPiece(newPosition);
-        ChessPiece.PieceType newType;
-        if (move.getPromotionPiece() != null) {
-            newType = move.getPromotionPiece();
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN || captured != null) {
+            halfmoveClock = 0;
         } else {
-            newType = piece.getPieceType();
-        }
-        ChessPiece newPiece = new ChessPiece(piece.getTeamColor(), newType);
-        board.addPiece(myPosition, null);
-        board.addPiece(newPosition, newPiece);
-        if (isInCheck(piece.getTeamColor())) {
-            board.addPiece(newPosition, tempPiece);
-            board.addPiece(myPosition, piece);
-            throw new InvalidMoveException("Move is not allowed");
-        }
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN &&
-            Math.abs(myPosition.getRow() - newPosition.getRow()) == 2) {
-            if (isEnPassant(piece, newPosition)) {
-                pieceEnPassant = newPosition;
-            }
+            halfmoveClock++;
         }
-        ChessPiece castlePiece = castlingPieces.get(myPosition);
-        if (castlePiece != null && castlePiece.equals(piece)) {
-            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                castlingPieces.remove(myPosition, piece);
-                for (int col : Arrays.asList(1, 8)){
-                    ChessPosition rookPosition = new ChessPosition(myPosition.getRow(), col);
-                    ChessPiece rookPiece = board.getPiece(rookPosition);
-                    if (castlingPieces.get(rookPosition) != null &&
-                    castlingPieces.get(rookPosition).equals(rookPiece)) {
-                        castlingPieces.remove(rookPosition, rookPiece);
-                    }
-                }
-            } else {
-                castlingPieces.remove(myPosition, piece);
-            }
+        if (color == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            int squares = newPosition.getColumn() - myPosition.getColumn();
-            if (Math.abs(squares) == 2) {
-                final int rookStartColumn = (squares < 0) ? 1 : 8;
-                final ChessPosition rookStartPosition = new ChessPosition(myPosition.getRow(), rookStartColumn);
-                final int rookEndColumn = (squares < 0) ? 4 : 6;
-                final ChessPosition rookEndPosition = new ChessPosition(myPosition.getRow(), rookEndColumn);
-                board.addPiece(rookStartPosition, null);
-                board.addPiece(rookEndPosition, new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.ROOK));
-            }
+        teamTurn = color.opponent();
+    }
+
+    /**
+     * Takes back the last move made, restoring the board and game state from the undo stack
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        ply--;
+        int move = moveStack[ply];
+        long undo = undoStack[ply];
+        int capturedIndex = (int) ((undo >>> 28) & 0xF) - 1;
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(to);
+        TeamColor color = piece.getTeamColor();
+        if (PackedMove.isPromotion(move)) {
+            piece = ChessPiece.of(color, ChessPiece.PieceType.PAWN);
+        }
+        board.addPiece(to, null);
+        board.addPiece(from, piece);
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rookFrom = (to > from) ? to + 1 : to - 2;
+            int rookTo = (to > from) ? to - 1 : to + 1;
+            board.addPiece(rookFrom, board.getPiece(rookTo));
+            board.addPiece(rookTo, null);
+        }
+        if (capturedIndex >= 0) {
+            int captureSquare = PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ?
+                                            to + ((color == TeamColor.WHITE) ? -8 : 8) : to;
+            board.addPiece(captureSquare, ChessPiece.of(capturedIndex));
         }
-        if (piece.getTeamColor() == TeamColor.WHITE) {
-            setTeamTurn(TeamColor.BLACK);
-        } else {
-            setTeamTurn(TeamColor.WHITE);
+
+        castlingRights = (int) (undo & 0xF);
+        enPassantSquare = (int) ((undo >>> 4) & 0x7F) - 1;
+        halfmoveClock = (int) ((undo >>> 11) & 0xFFFF);
+        teamTurn = ((undo >>> 27) & 1) == 0 ? TeamColor.WHITE : TeamColor.BLACK;
+        if (color == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        if (keysKnownFrom > 0 && ply - halfmoveClock < keysKnownFrom) {
+            fillKeys(Math.max(0, ply - halfmoveClock));
         }
     }
 
     /**
-     * Determines if the given team is in check
+     * @return Number of moves on the undo stack
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return The packed moves made on this game since it was set up, oldest first
+     */
+    public int[] getMoveHistory() {
+        return Arrays.copyOf(moveStack, ply);
+    }
+
+    /**
+     * Takes back every move in the history on a copy of this game
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @return the position the game was set up in, before any of its moves were made
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        return !getThreateningPieceMap(teamColor).isEmpty();
+    public ChessGame getStartPosition() {
+        ChessGame start = new ChessGame(this);
+        start.keysKnownFrom = 0;  // Its keys are never looked at
+        while (start.ply > 0) {
+            start.unmakeMove();
+        }
+        start.ended = false;
+        return start;
+    }
+
+    /**
+     * @param index ply of a move in the history, below {@link #getPly()}
+     * @return The record of the state the move replaced, packed as by pushUndo, for writers storing the history
+     */
+    long getUndoRecord(int index) {
+        return undoStack[index];
     }
 
     /**
-     * Determines if the given piece can be captured
+     * Puts back a stored history on a game already set up at the position it leads to, so the moves can be
+     * taken back and repetitions found. Each move is copied in as it was stored, without generating any
+     * moves, then the whole history is taken back once on a copy to check that every move fits the board
+     * it lands on; the keys within reach of {@link #isRepetition()} are recorded on the way.
      *
-     * @param teamColor which team to check for check
-     * @param enemyPosition position of the enemy piece
-     * @return True if the specified enemy can be captured
-     */
-    private boolean enemyCanBeCaptured(TeamColor teamColor, ChessPosition enemyPosition) {
-        Map<ChessPosition, ChessPiece> map = getPieceMapByColor(teamColor);
-        for (Map.Entry<ChessPosition, ChessPiece> teamItem : map.entrySet()) {
-            ChessPiece piece = teamItem.getValue();
-            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                continue;
+     * @param moves       packed moves with their flags, oldest first, as from {@link #getMoveHistory()}
+     * @param undoRecords the matching records from {@link #getUndoRecord(int)}
+     * @param count       number of moves
+     * @throws IllegalArgumentException if a move or record could not have been written by this class, or
+     *                                  the history does not lead to the position
+     */
+    void restoreHistory(int[] moves, long[] undoRecords, int count) {
+        moveStack = new int[Math.max(INITIAL_STACK_SIZE, count)];
+        undoStack = new long[moveStack.length];
+        keyStack = new long[moveStack.length];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            long undo = undoRecords[i];
+            if (move >>> 19 != 0 || PackedMove.from(move) == PackedMove.to(move)
+                    || (undo >>> 32) != 0 || ((undo >>> 4) & 0x7F) > 64 || ((undo >>> 28) & 0xF) > 12) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " of the history is corrupt");
             }
-            for (ChessMove move : piece.pieceMoves(board, teamItem.getKey())) {
-                if (move.getEndPosition().equals(enemyPosition)) {
-                    return true;
+            moveStack[i] = move;
+            undoStack[i] = undo;
+        }
+        ply = count;
+        int keysFrom = Math.max(0, count - halfmoveClock);
+        ChessGame copy = new ChessGame(this);
+        copy.keysKnownFrom = 0;
+        try {
+            while (copy.ply > 0) {
+                if (!copy.lastMoveFits()) {
+                    throw new IllegalArgumentException("Move " + copy.ply + " of the history does not fit the board");
+                }
+                copy.unmakeMove();
+                if (copy.fullmoveNumber < 1) {
+                    throw new IllegalArgumentException("History is longer than the fullmove number allows");
+                }
+                if (copy.ply >= keysFrom) {
+                    keyStack[copy.ply] = copy.getZobristKey();
                 }
             }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("History does not lead to the position", e);
         }
-        return false;
+        keysKnownFrom = keysFrom;
     }
 
     /**
-     * Determines if the given team is in checkmate
-     *
-     * @param teamColor which team to check for checkmate
-     * @return True if the specified team is in checkmate
+     * Checks that the last move on the undo stack could have been made from the position its record
+     * describes to reach this one: the moved piece or promotion stands on the destination, the piece could
+     * move that way, the captured piece belongs to the other side, the mover is not left in check, and the
+     * castling rights, en passant square and halfmove clock follow from the record. Cheaper than replaying
+     * the move, as no moves are generated.
      */
-    public boolean isInCheckmate(TeamColor teamColor) {
-        Map<ChessPosition, ChessPiece> map = getThreateningPieceMap(teamColor);
-        if (!map.isEmpty()) {
-            Iterator<Map.Entry<ChessPosition, ChessPiece>> it = map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<ChessPosition, ChessPiece> enemyPiece = it.next();
-                if (enemyCanBeCaptured(teamColor, enemyPiece.getKey())) {
-                    it.remove();
-                    break;
+    private boolean lastMoveFits() {
+        int move = moveStack[ply - 1];
+        long undo = undoStack[ply - 1];
+        TeamColor color = ((undo >>> 27) & 1) == 0 ? TeamColor.WHITE : TeamColor.BLACK;
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(to);
+        if (teamTurn != color.opponent() || piece == null || piece.getTeamColor() != color
+                || board.getPiece(from) != null || isInCheck(color)) {
+            return false;
+        }
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (PackedMove.isPromotion(move)) {
+            if (type != PackedMove.promotion(move) || to / 8 != ((color == TeamColor.WHITE) ? 7 : 0)) {
+                return false;
+            }
+            type = ChessPiece.PieceType.PAWN;
+        }
+
+        int capturedIndex = (int) ((undo >>> 28) & 0xF) - 1;
+        if (PackedMove.isCapture(move) != (capturedIndex >= 0)) {
+            return false;
+        }
+        if (capturedIndex >= 0) {
+            ChessPiece captured = ChessPiece.of(capturedIndex);
+            if (captured.getTeamColor() == color || captured.getPieceType() == ChessPiece.PieceType.KING) {
+                return false;
+            }
+            if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)
+                    && (captured.getPieceType() != ChessPiece.PieceType.PAWN || (int) ((undo >>> 4) & 0x7F) - 1 != to
+                        || board.getPiece(to + ((color == TeamColor.WHITE) ? -8 : 8)) != null)) {
+                return false;
+            }
+        }
+
+        long occupied = board.getOccupied();
+        boolean reaches = switch (type) {
+            case PAWN -> {
+                int forward = (color == TeamColor.WHITE) ? 8 : -8;
+                if (PackedMove.isCapture(move)) {
+                    yield (AttackTables.pawnAttacks(color, from) & (1L << to)) != 0;
+                }
+                if (PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH)) {
+                    yield to == from + 2 * forward && from / 8 == ((color == TeamColor.WHITE) ? 1 : 6)
+                            && board.getPiece(from + forward) == null;
                 }
+                yield to == from + forward;
             }
-            Map<ChessPosition, ChessPiece> myTeamMap = getPieceMapByColor(teamColor);
-            for (Map.Entry<ChessPosition, ChessPiece> teamMember : myTeamMap.entrySet()) {
-                if (!validMoves(teamMember.getKey()).isEmpty()) {
-                    return false; /* check can be blocked */
+            case KNIGHT -> (AttackTables.knightAttacks(from) & (1L << to)) != 0;
+            case BISHOP -> (AttackTables.bishopAttacks(from, 0L) & (1L << to)) != 0
+                    && (AttackTables.between(from, to) & occupied) == 0;
+            case ROOK -> (AttackTables.rookAttacks(from, 0L) & (1L << to)) != 0
+                    && (AttackTables.between(from, to) & occupied) == 0;
+            case QUEEN -> (AttackTables.queenAttacks(from, 0L) & (1L << to)) != 0
+                    && (AttackTables.between(from, to) & occupied) == 0;
+            case KING -> {
+                if (!PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+                    yield (AttackTables.kingAttacks(from) & (1L << to)) != 0;
                 }
+                int rookFrom = (to > from) ? to + 1 : to - 2;
+                int rookTo = (to > from) ? to - 1 : to + 1;
+                yield from == ((color == TeamColor.WHITE) ? 4 : 60) && Math.abs(to - from) == 2
+                        && (undo & ALL_CASTLING & ~CASTLING_MASKS[rookFrom]) != 0
+                        && ChessPiece.of(color, ChessPiece.PieceType.ROOK).equals(board.getPiece(rookTo))
+                        && board.getPiece(rookFrom) == null;
             }
-            return !map.isEmpty();
+        };
+        if (!reaches || (PackedMove.hasFlag(move, PackedMove.CASTLE) && type != ChessPiece.PieceType.KING)
+                || (PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH) && type != ChessPiece.PieceType.PAWN)) {
+            return false;
         }
-        return false;
+
+        int undoHalfmoveClock = (int) ((undo >>> 11) & 0xFFFF);
+        boolean resetsClock = type == ChessPiece.PieceType.PAWN || capturedIndex >= 0;
+        return castlingRights == ((int) (undo & 0xF) & CASTLING_MASKS[from] & CASTLING_MASKS[to])
+                && (enPassantSquare == -1
+                    || (PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH) && enPassantSquare == (from + to) >>> 1))
+                && (resetsClock ? halfmoveClock == 0
+                                : halfmoveClock == undoHalfmoveClock + 1 || undoHalfmoveClock == 0xFFFF);
     }
 
     /**
-     * Determines if the given team is in stalemate, which here is defined as having
-     * no valid moves
-     *
-     * @param teamColor which team to check for stalemate
-     * @return True if the specified team is in stalemate, otherwise false
+     * Fills in keyStack from the given ply up to keysKnownFrom, by taking moves back on a copy
      */
-    public boolean isInStalemate(TeamColor teamColor) {
-        Set<ChessPosition> enemyEndPositions = new HashSet<>();
-        ArrayList<ChessPosition> kingEndPositions = new ArrayList<>();
-        if (!isInCheck(teamColor)) {
-            final Map<ChessPosition, ChessPiece> myMap = getPieceMapByColor(teamColor);
-            final Map<ChessPosition, ChessPiece> enemyMap = (teamColor == TeamColor.WHITE) ?
-                                            getPieceMapByColor(TeamColor.BLACK) : getPieceMapByColor(TeamColor.WHITE);
-            for (Map.Entry<ChessPosition, ChessPiece> item : myMap.entrySet()) {
-                ChessPiece piece = item.getValue();
-                if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    for (ChessMove move : piece.pieceMoves(board, item.getKey())) {
-                        kingEndPositions.add(move.getEndPosition());
-                    }
-                }
+    private void fillKeys(int from) {
+        ChessGame copy = new ChessGame(this);
+        copy.keysKnownFrom = 0;
+        while (copy.ply > from) {
+            copy.unmakeMove();
+            if (copy.ply < keysKnownFrom) {
+                keyStack[copy.ply] = copy.getZobristKey();
             }
-            for (Map.Entry<ChessPosition, ChessPiece> item : enemyMap.entrySet()) {
-                ChessPiece piece = item.getValue();
-                for (ChessMove move : piece.pieceMoves(board, item.getKey())) {
-                    enemyEndPositions.add(move.getEndPosition());
-                }
+        }
+        keysKnownFrom = from;
+    }
 
-            }
-            if (kingEndPositions.isEmpty()) {
-                return false;
-            } else {
-                return enemyEndPositions.containsAll(kingEndPositions);
+    /**
+     * Makes a move from a history stored in an older format without undo records, found among the legal
+     * moves by its squares and promotion alone
+     *
+     * @param move a packed move, with or without its flags
+     * @return False if no legal move matches, in which case the game is unchanged
+     */
+    boolean replayMove(int move) {
+        int wanted = PackedMove.withoutFlags(move);
+        MoveList moves = new MoveList();
+        validMoves(PackedMove.from(wanted), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.withoutFlags(moves.get(i)) == wanted) {
+                makeMove(moves.get(i));
+                return true;
             }
         }
         return false;
     }
 
     /**
-     * Get the map which threatening pieces are put in position/piece pairs
+     * Gets the Zobrist key of the current position, covering the pieces, the team to move, the castling
+     * rights and the en passant file. The board keeps its part up to date as pieces move, so this is cheap.
      *
-     * @param teamColor which team to get the threatening pieces
-     * @return Map of pieces which attack the king of the specified team
-     */
-    private Map<ChessPosition, ChessPiece> getThreateningPieceMap(TeamColor teamColor) {
-        Map<ChessPosition, ChessPiece> map = new HashMap<>();
-        final Map<ChessPosition, ChessPiece> myMap = getPieceMapByColor(teamColor);
-        final Map<ChessPosition, ChessPiece> enemyMap = (teamColor == TeamColor.WHITE) ?
-                                            getPieceMapByColor(TeamColor.BLACK) : getPieceMapByColor(TeamColor.WHITE);
-        ChessPosition kingPosition = new ChessPosition(0, 0);
-        for (Map.Entry<ChessPosition, ChessPiece> item : myMap.entrySet()) {
-            if (item.getValue().getPieceType() == ChessPiece.PieceType.KING) {
-                kingPosition = item.getKey();
-                break;
-            }
-        }
-        for (Map.Entry<ChessPosition, ChessPiece> item : enemyMap.entrySet()) {
-            ChessPosition position = item.getKey();
-            for (ChessMove move : item.getValue().pieceMoves(board, position)) {
-                if (move.getEndPosition().equals(kingPosition)) {
-                    map.put(position, item.getValue());
-                }
-            }
-        }
-        return map;
+     * @return 64-bit key of the position
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ Zobrist.stateKey(teamTurn, castlingRights, enPassantSquare);
     }
 
     /**
-     * Get the map which specified team pieces are put in position/piece pairs
-     * @param teamColor which team to get the piece map
-     * @return Piece map of the specified team
+     * Evaluates the position statically: material plus piece-square tables, blended between middlegame and
+     * endgame values by the material left. The board updates its part as pieces move, so this is cheap.
+     *
+     * @return Score in centipawns, positive when the team to move is ahead
      */
-    private Map<ChessPosition, ChessPiece> getPieceMapByColor(TeamColor teamColor) {
-        Map<ChessPosition, ChessPiece> map = new HashMap<>();
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    map.put(position, piece);
-                }
-            }
-        }
-        return map;
+    public int evaluate() {
+        int score = board.getPieceSquareScore();
+        return (teamTurn == TeamColor.WHITE) ? score : -score;
     }
 
-    private void addCastlingPieces(TeamColor team) {
-        final int row = (team == TeamColor.WHITE) ? 1 : 8;
-        for (int col : Arrays.asList(1, 5, 8)) {
-            ChessPosition piecePosition = new ChessPosition(row, col);
-            ChessPiece piece = board.getPiece(piecePosition);
-            ChessPiece.PieceType type = (col == 5) ? ChessPiece.PieceType.KING : ChessPiece.PieceType.ROOK;
-            if (piece != null && piece.getPieceType() == type) {
-                castlingPieces.put(piecePosition, piece);
+    /**
+     * Determines if the current position already occurred since the last capture or pawn move
+     * among the moves made on this game
+     *
+     * @return True if the position is a repetition
+     */
+    public boolean isRepetition() {
+        long key = getZobristKey();
+        int oldest = Math.max(0, ply - halfmoveClock);
+        // Only positions with the same team to move can match
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (keyStack[i] == key) {
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * Pushes a move onto the undo stack. The state it replaces is packed into one long:
+     * bits 0 ~ 3 castling rights, 4 ~ 10 en passant square + 1, 11 ~ 26 halfmove clock, 27 team turn,
+     * 28 ~ 31 captured piece index + 1 (0 if nothing was captured)
+     */
+    private void pushUndo(int move, ChessPiece captured) {
+        if (ply == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, ply * 2);
+            undoStack = Arrays.copyOf(undoStack, ply * 2);
+            keyStack = Arrays.copyOf(keyStack, ply * 2);
+        }
+        moveStack[ply] = move;
+        undoStack[ply] = castlingRights
+                | ((long) (enPassantSquare + 1) << 4)
+                | ((long) Math.min(halfmoveClock, 0xFFFF) << 11)
+                | ((long) teamTurn.ordinal() << 27)
+                | ((long) ((captured == null) ? 0 : captured.getPieceIndex() + 1) << 28);
+        keyStack[ply] = getZobristKey();
+        ply++;
+    }
+
+    /**
+     * @param square the square a pawn of the given team just passed over
+     * @param color  the team whose pawn moved
+     * @return True if an enemy pawn could capture onto the given square, i.e. stands diagonally behind it
+     */
+    boolean canBeCapturedEnPassant(int square, TeamColor color) {
+        long enemyPawns = board.getPieces(color.opponent(), ChessPiece.PieceType.PAWN);
+        return (AttackTables.pawnAttacks(color, square) & enemyPawns) != 0;
+    }
+
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        return getCheckers(teamColor) != 0;
+    }
+
+    /**
+     * Determines if the given team is in checkmate
+     *
+     * @param teamColor which team to check for checkmate
+     * @return True if the specified team is in checkmate
+     */
+    public boolean isInCheckmate(TeamColor teamColor) {
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    /**
+     * Determines if the given team is in stalemate, which here is defined as having
+     * no valid moves while not in check
+     *
+     * @param teamColor which team to check for stalemate
+     * @return True if the specified team is in stalemate, otherwise false
+     */
+    public boolean isInStalemate(TeamColor teamColor) {
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
     }
 
     /**
@@ -476,15 +835,62 @@ public class ChessGame {
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        if (!castlingPieces.isEmpty()) {
-            castlingPieces.clear();
-        }
         this.board = board;
-        addCastlingPieces(TeamColor.WHITE);
-        addCastlingPieces(TeamColor.BLACK);
+        // A king and rook still on their starting squares are taken as never having moved
+        castlingRights = 0;
+        if (hasHomeKing(TeamColor.WHITE, 4)) {
+            castlingRights |= (hasCastlingRook(TeamColor.WHITE, 7) ? WHITE_KING_SIDE : 0)
+                    | (hasCastlingRook(TeamColor.WHITE, 0) ? WHITE_QUEEN_SIDE : 0);
+        }
+        if (hasHomeKing(TeamColor.BLACK, 60)) {
+            castlingRights |= (hasCastlingRook(TeamColor.BLACK, 63) ? BLACK_KING_SIDE : 0)
+                    | (hasCastlingRook(TeamColor.BLACK, 56) ? BLACK_QUEEN_SIDE : 0);
+        }
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        ply = 0;
+        keysKnownFrom = 0;
     }
-    public String toString() { return new Gson().toJson(this);
+
+    /**
+     * Overrides the state that setBoard infers, for positions loaded from notation such as FEN
+     */
+    void setPositionState(int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    private boolean hasHomeKing(TeamColor color, int square) {
+        ChessPiece king = board.getPiece(square);
+        return king != null && king.getTeamColor() == color && king.getPieceType() == ChessPiece.PieceType.KING;
+    }
+
+    /**
+     * @return The current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
+
+    /**
+     * Builds a game from a position in Forsyth-Edwards Notation
+     *
+     * @param fen the position, e.g. {@link Fen#START_POSITION}
+     * @return a new game set up at that position, with no move history
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    @Override
+    public String toString() {
+        return Json.toJson(this);
+    }
+
     /**
      * Gets the current chessboard
      * @return the chessboard
@@ -0,0 +1,170 @@
+package chess;
+
+/**
+ * Packs a game into a few dozen bytes for storage. Version 3 layout, big-endian:
+ * <pre>
+ * 0       magic 'C'
+ * 1       format version (3)
+ * 2       bit 0 team to move (1 = black), bit 1 game ended, bits 4-7 castling rights
+ * 3       en passant square + 1, or 0 for none
+ * 4-5     halfmove clock, capped at 65535
+ * 6-7     fullmove number, capped at 65535
+ * 8-15    bitboard of occupied squares (a1 = bit 0)
+ * 16-     one 4-bit piece index (see ChessBoard.pieceIndex) per occupied square, from a1 upwards,
+ *         two to a byte with the first in the high half
+ * then    number of moves made, 2 bytes, so at most 65535, followed by 7 bytes per move: the packed move
+ *         with its flags in 3 bytes and the record of the state it replaced (see ChessGame.getUndoRecord) in 4
+ * </pre>
+ * The position is the current one, so decoding sets it up directly, and the moves are copied back onto the
+ * undo stack as they are without being replayed. A full board with no moves takes 34 bytes.
+ * Version 1 is the position alone. Version 2 held the position the game started in and the moves without
+ * flags or records, which have to be replayed; both are still read.
+ */
+public final class ChessGameCodec {
+
+    public static final byte MAGIC = 'C';
+    public static final byte VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+    private static final int MOVE_SIZE = 7;
+
+    private ChessGameCodec() {}
+
+    /**
+     * @param game the game to pack
+     * @return the game in the current format version
+     * @throws IllegalArgumentException if the game has more moves than the format can count
+     */
+    public static byte[] encode(ChessGame game) {
+        int ply = game.getPly();
+        if (ply > 0xFFFF) {
+            throw new IllegalArgumentException("Too many moves to encode: " + ply);
+        }
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupied();
+        int positionSize = HEADER_SIZE + (Long.bitCount(occupied) + 1) / 2;
+        byte[] bytes = new byte[positionSize + 2 + MOVE_SIZE * ply];
+
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = (byte) ((game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0)
+                | (game.isEnded() ? 2 : 0) | (game.getCastlingRights() << 4));
+        bytes[3] = (byte) (game.getEnPassantSquare() + 1);
+        writeShort(bytes, 4, game.getHalfmoveClock());
+        writeShort(bytes, 6, game.getFullmoveNumber());
+        for (int i = 0; i < 8; i++) {
+            bytes[8 + i] = (byte) (occupied >>> (56 - 8 * i));
+        }
+
+        int nibble = 0;
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int index = board.getPiece(Long.numberOfTrailingZeros(rest)).getPieceIndex();
+            bytes[HEADER_SIZE + nibble / 2] |= (byte) ((nibble % 2 == 0) ? index << 4 : index);
+            nibble++;
+        }
+
+        writeShort(bytes, positionSize, ply);
+        int[] moves = game.getMoveHistory();
+        for (int i = 0, offset = positionSize + 2; i < ply; i++, offset += MOVE_SIZE) {
+            long undo = game.getUndoRecord(i);
+            bytes[offset] = (byte) (moves[i] >>> 16);
+            bytes[offset + 1] = (byte) (moves[i] >>> 8);
+            bytes[offset + 2] = (byte) moves[i];
+            bytes[offset + 3] = (byte) (undo >>> 24);
+            bytes[offset + 4] = (byte) (undo >>> 16);
+            bytes[offset + 5] = (byte) (undo >>> 8);
+            bytes[offset + 6] = (byte) undo;
+        }
+        return bytes;
+    }
+
+    /**
+     * @param bytes a packed game
+     * @return the unpacked game
+     * @throws IllegalArgumentException if the bytes are not a packed game, use an unknown version
+     *                                  or hold a corrupt or illegal move
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Not a packed game");
+        }
+        int version = bytes[1];
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unknown packed game version: " + version);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Packed game is truncated");
+        }
+        long occupied = 0L;
+        for (int i = 0; i < 8; i++) {
+            occupied = (occupied << 8) | (bytes[8 + i] & 0xFF);
+        }
+        int positionSize = HEADER_SIZE + (Long.bitCount(occupied) + 1) / 2;
+        int moveCount = 0;
+        if (version != 1) {
+            if (bytes.length < positionSize + 2) {
+                throw new IllegalArgumentException("Packed game is truncated");
+            }
+            moveCount = readShort(bytes, positionSize);
+        }
+        int moveSize = (version == 2) ? 2 : MOVE_SIZE;
+        if (bytes.length < positionSize + ((version == 1) ? 0 : 2 + moveSize * moveCount)) {
+            throw new IllegalArgumentException("Packed game is truncated");
+        }
+
+        ChessBoard board = new ChessBoard();
+        int nibble = 0;
+        for (long rest = occupied; rest != 0; rest &= rest - 1) {
+            int packed = bytes[HEADER_SIZE + nibble / 2];
+            int index = ((nibble % 2 == 0) ? packed >>> 4 : packed) & 0xF;
+            if (index >= 12) {
+                throw new IllegalArgumentException("Bad piece index: " + index);
+            }
+            board.addPiece(Long.numberOfTrailingZeros(rest), ChessPiece.of(index));
+            nibble++;
+        }
+
+        int flags = bytes[2] & 0xFF;
+        ChessGame game = new ChessGame(board);
+        game.setTeamTurn(((flags & 1) != 0) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setPositionState(flags >>> 4, (bytes[3] & 0xFF) - 1, readShort(bytes, 4), readShort(bytes, 6));
+
+        if (version == 2) {
+            // The position is where the game started, so the moves have to be found and made again
+            for (int i = 0; i < moveCount; i++) {
+                if (!game.replayMove(readShort(bytes, positionSize + 2 + 2 * i))) {
+                    throw new IllegalArgumentException("Move " + (i + 1) + " of the history is not legal");
+                }
+            }
+        } else if (moveCount > 0) {
+            int[] moves = new int[moveCount];
+            long[] undoRecords = new long[moveCount];
+            for (int i = 0, offset = positionSize + 2; i < moveCount; i++, offset += MOVE_SIZE) {
+                moves[i] = ((bytes[offset] & 0xFF) << 16) | ((bytes[offset + 1] & 0xFF) << 8)
+                        | (bytes[offset + 2] & 0xFF);
+                undoRecords[i] = ((long) readShort(bytes, offset + 3) << 16) | readShort(bytes, offset + 5);
+            }
+            game.restoreHistory(moves, undoRecords, moveCount);
+        }
+        if ((flags & 2) != 0) {
+            game.setEnded();
+        }
+        return game;
+    }
+
+    /**
+     * @return True if the bytes start with the packed game header, as opposed to e.g. legacy JSON
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    private static void writeShort(byte[] bytes, int offset, int value) {
+        value = Math.min(value, 0xFFFF);
+        bytes[offset] = (byte) (value >>> 8);
+        bytes[offset + 1] = (byte) value;
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -1,52 +1,246 @@
 package chess;
 
-import com.google.gson.*;
+import chess.piecemoves.PackedMove;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads and writes games as JSON in a single pass over the stream, with the board written compactly
+ * as a FEN piece placement, e.g.
+ * <pre>
+ * {"teamTurn":"WHITE","board":"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR","castlingRights":15,
+ *  "enPassantSquare":-1,"halfmoveClock":0,"fullmoveNumber":1,"ended":false}
+ * </pre>
+ * A game with moves made on it also gets its packed moves (see {@link PackedMove}) and the record of the state
+ * each one replaced (see ChessGame.getUndoRecord), so a reloaded game has the same history for undo and
+ * repetition. They are copied back as they are, without replaying any moves:
+ * <pre>
+ * {..., "moves":[66332,35636],"undo":[15,3599]}
+ * </pre>
+ * Games stored in the older reflective format, with the board as nested arrays of pieces, are still read,
+ * as are games stored with the position they started from and their moves without flags, which are replayed
+ * and must lead to the stored position.
+ */
+public class ChessGameTypeAdapter extends TypeAdapter<ChessGame> {
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("teamTurn").value(game.getTeamTurn().name());
+        out.name("board").value(Fen.placement(game.getBoard()));
+        out.name("castlingRights").value(game.getCastlingRights());
+        out.name("enPassantSquare").value(game.getEnPassantSquare());
+        out.name("halfmoveClock").value(game.getHalfmoveClock());
+        out.name("fullmoveNumber").value(game.getFullmoveNumber());
+        out.name("ended").value(game.isEnded());
+        int ply = game.getPly();
+        if (ply > 0) {
+            out.name("moves").beginArray();
+            for (int move : game.getMoveHistory()) {
+                out.value(move);
+            }
+            out.endArray();
+            out.name("undo").beginArray();
+            for (int i = 0; i < ply; i++) {
+                out.value(game.getUndoRecord(i));
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
 
-public class ChessGameTypeAdapter implements JsonDeserializer<ChessGame>  {
     @Override
-    public ChessGame deserialize(JsonElement element, Type type, JsonDeserializationContext context) throws JsonParseException {
-        String teamTurnStr = element.getAsJsonObject().get("teamTurn").getAsString();
-        ChessGame.TeamColor teamTurn = (teamTurnStr.equals("WHITE")) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
-        JsonObject boardObj = element.getAsJsonObject().get("board").getAsJsonObject();
-        JsonArray boardArray = boardObj.get("board").getAsJsonArray();
+    public ChessGame read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor teamTurn = ChessGame.TeamColor.WHITE;
+        ChessBoard board = null;
+        int castlingRights = -1;
+        int enPassantSquare = -1;
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        boolean ended = false;
+        String startPosition = null;
+        int[] moves = null;
+        long[] undoRecords = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "teamTurn" -> teamTurn = readEnum(ChessGame.TeamColor.class, in.nextString());
+                case "board" -> board = (in.peek() == JsonToken.STRING) ? readPlacement(in.nextString())
+                                                                       : readLegacyBoard(in);
+                case "castlingRights" -> castlingRights = in.nextInt();
+                case "enPassantSquare" -> enPassantSquare = in.nextInt();
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                case "ended" -> ended = in.nextBoolean();
+                case "startPosition" -> startPosition = in.nextString();
+                case "moves" -> moves = readMoves(in);
+                case "undo" -> undoRecords = readUndoRecords(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (moves != null && undoRecords == null) {
+            ChessGame game = replay(startPosition, moves);
+            if (board != null && (!board.equals(game.getBoard()) || teamTurn != game.getTeamTurn()
+                    || (castlingRights >= 0 && castlingRights != game.getCastlingRights())
+                    || enPassantSquare != game.getEnPassantSquare()
+                    || halfmoveClock != game.getHalfmoveClock() || fullmoveNumber != game.getFullmoveNumber())) {
+                throw new JsonParseException("Moves do not lead to the stored position");
+            }
+            if (ended) {
+                game.setEnded();
+            }
+            return game;
+        }
+        if (board == null) {
+            throw new JsonParseException("Game has no board");
+        }
+
+        ChessGame game = new ChessGame(board);
+        game.setTeamTurn(teamTurn);
+        // Without stored castling rights, keep the ones inferred from the board
+        game.setPositionState((castlingRights >= 0) ? castlingRights : game.getCastlingRights(), enPassantSquare,
+                halfmoveClock, fullmoveNumber);
+        if (undoRecords != null) {
+            if (moves == null || moves.length != undoRecords.length) {
+                throw new JsonParseException("Game needs one undo record per move");
+            }
+            try {
+                game.restoreHistory(moves, undoRecords, undoRecords.length);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+        if (ended) {
+            game.setEnded();
+        }
+        return game;
+    }
+
+    private static long[] readUndoRecords(JsonReader in) throws IOException {
+        long[] records = new long[16];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == records.length) {
+                records = Arrays.copyOf(records, count * 2);
+            }
+            records[count++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(records, count);
+    }
+
+    private static int[] readMoves(JsonReader in) throws IOException {
+        int[] moves = new int[16];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, count * 2);
+            }
+            moves[count++] = in.nextInt();
+        }
+        in.endArray();
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Rebuilds a game stored in the older format by making its moves from the position it started in
+     */
+    private static ChessGame replay(String startPosition, int[] moves) {
+        ChessGame game;
+        try {
+            game = Fen.parse((startPosition == null) ? Fen.START_POSITION : startPosition);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+        for (int i = 0; i < moves.length; i++) {
+            if (!game.replayMove(moves[i])) {
+                throw new JsonParseException("Move " + (i + 1) + " of the history is not legal");
+            }
+        }
+        return game;
+    }
+
+    private static ChessBoard readPlacement(String placement) {
+        try {
+            return Fen.parseBoard(placement);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a board written field by field: {"board":[[piece or null, ...], ...]} with row 1 first
+     */
+    private static ChessBoard readLegacyBoard(JsonReader in) throws IOException {
         ChessBoard board = new ChessBoard();
-        for (int row = 0; row < boardArray.size(); row++) {
-            JsonArray pieceRow = boardArray.get(row).getAsJsonArray();
-            for (int col = 0; col < pieceRow.size(); col++) {
-                if (!pieceRow.get(col).isJsonObject()) {
-                    continue;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!in.nextName().equals("board")) {
+                in.skipValue();
+                continue;
+            }
+            in.beginArray();
+            for (int row = 1; in.hasNext(); row++) {
+                in.beginArray();
+                for (int column = 1; in.hasNext(); column++) {
+                    if (row > 8 || column > 8) {
+                        throw new JsonParseException("Board is larger than 8x8");
+                    }
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        board.addPiece(ChessPosition.toSquare(row, column), readLegacyPiece(in));
+                    }
                 }
-                JsonObject pieceObj = pieceRow.get(col).getAsJsonObject();
-                String colorStr = pieceObj.get("pieceColor").getAsString();
-                String typeStr = pieceObj.get("type").getAsString();
-                ChessGame.TeamColor color = (colorStr.equals("WHITE")) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
-                ChessPiece.PieceType pieceType = getPieceType(typeStr);
-                ChessPosition position = new ChessPosition(row + 1, col + 1);
-                board.addPiece(position, new ChessPiece(color, pieceType));
+                in.endArray();
             }
+            in.endArray();
         }
-        boolean isEnded = element.getAsJsonObject().get("ended").getAsBoolean();
-        ChessGame newGame = new ChessGame();
-        newGame.setBoard(board);
-        newGame.setTeamTurn(teamTurn);
-        if (isEnded) {
-            newGame.setEnded();
-        }
-        return newGame;
+        in.endObject();
+        return board;
     }
 
-    private static ChessPiece.PieceType getPieceType(String typeStr) {
+    private static ChessPiece readLegacyPiece(JsonReader in) throws IOException {
+        ChessGame.TeamColor color = null;
         ChessPiece.PieceType type = null;
-        switch (typeStr) {
-            case "KING" -> type = ChessPiece.PieceType.KING;
-            case "QUEEN" -> type = ChessPiece.PieceType.QUEEN;
-            case "BISHOP" -> type = ChessPiece.PieceType.BISHOP;
-            case "KNIGHT" -> type = ChessPiece.PieceType.KNIGHT;
-            case "ROOK" -> type = ChessPiece.PieceType.ROOK;
-            case "PAWN" -> type = ChessPiece.PieceType.PAWN;
-        }
-        return type;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieceColor" -> color = readEnum(ChessGame.TeamColor.class, in.nextString());
+                case "type" -> type = readEnum(ChessPiece.PieceType.class, in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new JsonParseException("Piece needs a pieceColor and a type");
+        }
+        return ChessPiece.of(color, type);
+    }
+
+    private static <E extends Enum<E>> E readEnum(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown " + type.getSimpleName() + ": " + name, e);
+        }
     }
 }
@@ -14,15 +14,54 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // One shared instance per color and type, indexed like ChessBoard.pieceIndex
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    // Stateless calculators, one per piece type in PieceType order, shared by every piece and thread
+    private static final PieceMovesCalculator[] CALCULATORS = {
+            new KingMovesCalculator(),
+            new QueenMovesCalculator(),
+            new BishopMovesCalculator(),
+            new KnightMovesCalculator(),
+            new RookMovesCalculator(),
+            new PawnMovesCalculator(),
+    };
+
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType type;
-    private final ArrayList<ChessMove> moves = new ArrayList<>();
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared piece of a color and type. Pieces are immutable, so callers should prefer this over
+     * the constructor to avoid allocating.
+     *
+     * @param pieceColor which team the piece belongs to
+     * @param type       which type of piece it is
+     * @return the cached piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @param pieceIndex index as given by ChessBoard.pieceIndex (0 ~ 11)
+     * @return the cached piece with that index
+     */
+    public static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -34,7 +73,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type, moves);
+        return Objects.hash(pieceColor, type);
     }
 
     @Override
@@ -42,7 +81,6 @@ public class ChessPiece {
         return "ChessPiece{" +
                 "pieceColor=" + pieceColor +
                 ", type=" + type +
-                ", moves=" + moves +
                 '}';
     }
 
@@ -72,6 +110,13 @@ public class ChessPiece {
         return type;
     }
 
+    /**
+     * @return index of this piece's color and type, as given by ChessBoard.pieceIndex (0 ~ 11)
+     */
+    public int getPieceIndex() {
+        return ChessBoard.pieceIndex(pieceColor, type);
+    }
+
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -80,35 +125,25 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        if (!moves.isEmpty()){
-            moves.clear();
-        }
-        switch (type) {
-            case KING:
-                KingMovesCalculator kingMoves = new KingMovesCalculator(board, pieceColor, myPosition, moves);
-                kingMoves.pieceMoves();
-                break;
-            case QUEEN:
-                QueenMovesCalculator queenMoves = new QueenMovesCalculator(board, pieceColor, myPosition, moves);
-                queenMoves.pieceMoves();
-                break;
-            case BISHOP:
-                BishopMovesCalculator bishopMoves = new BishopMovesCalculator(board, pieceColor, myPosition, moves);
-                bishopMoves.pieceMoves();
-                break;
-            case KNIGHT:
-                KnightMovesCalculator knightMoves = new KnightMovesCalculator(board, pieceColor, myPosition, moves);
-                knightMoves.pieceMoves();
-                break;
-            case ROOK:
-                RookMovesCalculator rookMoves = new RookMovesCalculator(board, pieceColor, myPosition, moves);
-                rookMoves.pieceMoves();
-                break;
-            case PAWN:
-                PawnMovesCalculator pawnMoves = new PawnMovesCalculator(board, pieceColor, myPosition, moves);
-                pawnMoves.pieceMoves();
-                break;
+        MoveList packedMoves = new MoveList();
+        pieceMoves(board, myPosition.getSquare(), packedMoves);
+        ArrayList<ChessMove> moves = new ArrayList<>(packedMoves.size());
+        for (int i = 0; i < packedMoves.size(); i++) {
+            moves.add(PackedMove.toChessMove(packedMoves.get(i)));
         }
         return moves;
     }
+
+    /**
+     * Calculates all the moves a chess piece can make as packed ints (see {@link PackedMove})
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger. Moves are appended, so one list can collect the moves of several pieces.
+     *
+     * @param board  the board the piece stands on
+     * @param square the square the piece stands on (0 ~ 63)
+     * @param moves  list to append the moves to
+     */
+    public void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        CALCULATORS[type.ordinal()].pieceMoves(board, pieceColor, square, moves);
+    }
 }
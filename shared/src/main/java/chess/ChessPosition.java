@@ -10,6 +10,14 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    // One shared instance per square, see of()
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int column;
 
@@ -19,6 +27,29 @@ public class ChessPosition {
     }
 
 
+    /**
+     * Gets the shared position for a square. Positions are immutable, so callers should prefer this over
+     * the constructor to avoid allocating.
+     *
+     * @param row board row (1 ~ 8)
+     * @param col board column (1 ~ 8)
+     * @return the cached position, or a new one if the row or column is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[toSquare(row, col)];
+    }
+
+    /**
+     * @param square square index (0 ~ 63), where a1 is 0 and h8 is 63
+     * @return the cached position of the square
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -35,6 +66,24 @@ public class ChessPosition {
         return column;
     }
 
+    /**
+     * @return the 0 ~ 63 square index of this position, where a1 is 0 and h8 is 63
+     */
+    public int getSquare() {
+        return toSquare(row, column);
+    }
+
+    /**
+     * Converts a 1-based row and column into a 0 ~ 63 square index
+     *
+     * @param row    board row (1 ~ 8)
+     * @param column board column (1 ~ 8)
+     * @return the square index, where a1 is 0 and h8 is 63
+     */
+    public static int toSquare(int row, int column) {
+        return ((row - 1) << 3) | (column - 1);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
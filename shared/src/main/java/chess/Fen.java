@@ -0,0 +1,329 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {}
+
+    /**
+     * Builds a game from a FEN string. The halfmove clock and fullmove number may be left out, and anything
+     * after the last field read is ignored, so EPD lines and perft suites with trailing counts parse too.
+     *
+     * @param fen the position in FEN
+     * @return a new game set up at that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame parse(CharSequence fen) {
+        return parse(fen, 0, fen.length());
+    }
+
+    /**
+     * Builds a game from the FEN in part of a character sequence, reading it in one pass without
+     * splitting it up or copying it, so bulk loaders can parse straight out of their buffers
+     *
+     * @param fen   characters holding the position
+     * @param start index of the first character to read
+     * @param end   index after the last character to read
+     * @return a new game set up at that position
+     * @throws IllegalArgumentException if the characters are not valid FEN
+     */
+    public static ChessGame parse(CharSequence fen, int start, int end) {
+        int i = skipSpaces(fen, start, end);
+        int fieldEnd = fieldEnd(fen, i, end);
+        ChessGame game = new ChessGame(parseBoard(fen, i, fieldEnd));
+
+        i = skipSpaces(fen, fieldEnd, end);
+        if (fieldEnd(fen, i, end) != i + 1) {
+            throw error("FEN needs at least 4 fields", fen, start, end);
+        }
+        switch (fen.charAt(i)) {
+            case 'w' -> game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            case 'b' -> game.setTeamTurn(ChessGame.TeamColor.BLACK);
+            default -> throw error("Bad side to move", fen, start, end);
+        }
+
+        i = skipSpaces(fen, i + 1, end);
+        fieldEnd = fieldEnd(fen, i, end);
+        if (i == end) {
+            throw error("FEN needs at least 4 fields", fen, start, end);
+        }
+        int castlingRights = parseCastling(fen, i, fieldEnd);
+        if (castlingRights < 0) {
+            throw error("Bad castling rights", fen, start, end);
+        }
+
+        i = skipSpaces(fen, fieldEnd, end);
+        fieldEnd = fieldEnd(fen, i, end);
+        if (i == end) {
+            throw error("FEN needs at least 4 fields", fen, start, end);
+        }
+        int enPassantSquare = parseSquare(fen, i, fieldEnd);
+        // Behind a pawn that just moved two squares: row 6 with white to move, row 3 with black to move
+        int enPassantRow = (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? 5 : 2;
+        if (enPassantSquare < -1 || (enPassantSquare >= 0 && enPassantSquare >>> 3 != enPassantRow)) {
+            throw error("Bad en passant square", fen, start, end);
+        }
+        // Kept only when a pawn can capture there, as makeMove does, so the position has the same key
+        // however it was reached
+        if (enPassantSquare >= 0
+                && !game.canBeCapturedEnPassant(enPassantSquare, game.getTeamTurn().opponent())) {
+            enPassantSquare = -1;
+        }
+
+        // The clocks are optional; a field that is not a number starts whatever follows the position
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpaces(fen, fieldEnd, end);
+        fieldEnd = fieldEnd(fen, i, end);
+        int number = parseNumber(fen, i, fieldEnd);
+        if (number >= 0) {
+            halfmoveClock = number;
+            i = skipSpaces(fen, fieldEnd, end);
+            number = parseNumber(fen, i, fieldEnd(fen, i, end));
+            if (number >= 0) {
+                fullmoveNumber = number;
+            }
+        }
+        game.setPositionState(castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    /**
+     * Writes a game's position as FEN. Parsing the result gives back the same position, castling rights,
+     * en passant square and move clocks, but not the moves that led there.
+     *
+     * @param game the game to describe
+     * @return the position in FEN, e.g. {@link #START_POSITION}
+     */
+    public static String format(ChessGame game) {
+        return appendTo(new StringBuilder(90), game).toString();
+    }
+
+    /**
+     * Appends a game's position as FEN, so writers of many positions can reuse one builder
+     *
+     * @param fen  where to append the position
+     * @param game the game to describe
+     * @return the same builder
+     */
+    public static StringBuilder appendTo(StringBuilder fen, ChessGame game) {
+        appendPlacement(fen, game.getBoard());
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = game.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            appendIf(fen, rights, ChessGame.WHITE_KING_SIDE, 'K');
+            appendIf(fen, rights, ChessGame.WHITE_QUEEN_SIDE, 'Q');
+            appendIf(fen, rights, ChessGame.BLACK_KING_SIDE, 'k');
+            appendIf(fen, rights, ChessGame.BLACK_QUEEN_SIDE, 'q');
+        }
+        int enPassant = game.getEnPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        return fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+    }
+
+    private static void appendIf(StringBuilder fen, int rights, int right, char c) {
+        if ((rights & right) != 0) {
+            fen.append(c);
+        }
+    }
+
+    /**
+     * Writes the piece placement field of FEN, e.g. {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}
+     *
+     * @param board the board to describe
+     * @return the pieces row by row from row 8 down to row 1
+     */
+    public static String placement(ChessBoard board) {
+        return appendPlacement(new StringBuilder(71), board).toString();
+    }
+
+    private static StringBuilder appendPlacement(StringBuilder placement, ChessBoard board) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                ChessPiece piece = board.getPiece(ChessPosition.toSquare(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    placement.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                placement.append(toChar(piece));
+            }
+            if (empty > 0) {
+                placement.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                placement.append('/');
+            }
+        }
+        return placement;
+    }
+
+    /**
+     * Reads the piece placement field of FEN into a new board
+     *
+     * @throws IllegalArgumentException if the field is not valid FEN
+     */
+    static ChessBoard parseBoard(CharSequence placement) {
+        return parseBoard(placement, 0, placement.length());
+    }
+
+    private static ChessBoard parseBoard(CharSequence fen, int start, int end) {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (column != 9) {
+                    throw error("Row " + row + " does not have 8 squares", fen, start, end);
+                }
+                row--;
+                column = 1;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                if (row < 1 || column > 8) {
+                    throw error("Too many squares", fen, start, end);
+                }
+                ChessPiece piece = toPiece(c);
+                if (piece == null) {
+                    throw error("Unknown piece " + c, fen, start, end);
+                }
+                board.addPiece(ChessPosition.toSquare(row, column), piece);
+                column++;
+            }
+            if (column > 9) {
+                throw error("Row " + row + " has more than 8 squares", fen, start, end);
+            }
+        }
+        if (row != 1 || column != 9) {
+            throw error("Board does not have 8 full rows", fen, start, end);
+        }
+        return board;
+    }
+
+    /**
+     * @return the piece a FEN letter stands for, or null if it stands for none
+     */
+    private static ChessPiece toPiece(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        return (type == null) ? null : ChessPiece.of(color, type);
+    }
+
+    private static char toChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * @return the castling rights in a field like "KQkq" or "-", or -1 if the field is not valid
+     */
+    private static int parseCastling(CharSequence fen, int start, int end) {
+        if (end == start + 1 && fen.charAt(start) == '-') {
+            return 0;
+        }
+        int rights = 0;
+        for (int i = start; i < end; i++) {
+            int right = switch (fen.charAt(i)) {
+                case 'K' -> ChessGame.WHITE_KING_SIDE;
+                case 'Q' -> ChessGame.WHITE_QUEEN_SIDE;
+                case 'k' -> ChessGame.BLACK_KING_SIDE;
+                case 'q' -> ChessGame.BLACK_QUEEN_SIDE;
+                default -> -1;
+            };
+            if (right < 0) {
+                return -1;
+            }
+            rights |= right;
+        }
+        return (start == end) ? -1 : rights;
+    }
+
+    /**
+     * @return the 0 ~ 63 square of a name like "e3", -1 for "-", or -2 if the field is not valid
+     */
+    private static int parseSquare(CharSequence fen, int start, int end) {
+        if (end == start + 1 && fen.charAt(start) == '-') {
+            return -1;
+        }
+        if (end != start + 2) {
+            return -2;
+        }
+        char file = fen.charAt(start);
+        char rank = fen.charAt(start + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -2;
+        }
+        return ChessPosition.toSquare(rank - '0', file - 'a' + 1);
+    }
+
+    /**
+     * @return the non-negative number in a field, or -1 if it is not one
+     */
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static int skipSpaces(CharSequence fen, int i, int end) {
+        while (i < end && Character.isWhitespace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fieldEnd(CharSequence fen, int i, int end) {
+        while (i < end && !Character.isWhitespace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Builds the exception for a bad position; only here is the text copied, to quote it in the message
+     */
+    private static IllegalArgumentException error(String problem, CharSequence fen, int start, int end) {
+        return new IllegalArgumentException(problem + ": " + fen.subSequence(start, end));
+    }
+}
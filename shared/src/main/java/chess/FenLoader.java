@@ -0,0 +1,115 @@
+package chess;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads files of positions with one FEN per line, such as test suites and opening collections.
+ * Lines are parsed where they lie in one reused buffer, so the only objects made per line are the
+ * games themselves. Blank lines and lines starting with '#' are skipped, and anything after a position
+ * on its line, like EPD operations or perft counts, is ignored.
+ */
+public final class FenLoader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FenLoader() {}
+
+    /**
+     * Reads every position in a file
+     *
+     * @param path the file to read, in UTF-8
+     * @return the positions in the order they appear
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is not valid FEN; the message gives the line number
+     */
+    public static List<ChessGame> load(Path path) throws IOException {
+        List<ChessGame> games = new ArrayList<>();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            load(in, games::add);
+        }
+        return games;
+    }
+
+    /**
+     * Reads positions one line at a time and hands each to a consumer as soon as it is parsed,
+     * so a whole collection never has to fit in memory
+     *
+     * @param in        where to read the lines from; it is not closed
+     * @param positions receives each game
+     * @return number of positions read
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if a line is not valid FEN; the message gives the line number
+     */
+    public static int load(Reader in, Consumer<ChessGame> positions) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        CharBuffer view = CharBuffer.wrap(buffer);
+        int filled = 0;
+        int line = 0;
+        int count = 0;
+        boolean eof = false;
+        while (!eof) {
+            int read = in.read(buffer, filled, buffer.length - filled);
+            if (read < 0) {
+                eof = true;
+                // A last line without a newline ends at the end of the input; there is always room
+                // for the newline, since the buffer grows whenever a partial line fills it
+                if (filled > 0) {
+                    buffer[filled++] = '\n';
+                }
+            } else {
+                filled += read;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                line++;
+                if (parseLine(view, lineStart, i, line, positions)) {
+                    count++;
+                }
+                lineStart = i + 1;
+            }
+
+            // Keep the partial line at the end for the next read, making room if it fills the buffer
+            filled -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                view = CharBuffer.wrap(buffer);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return True if the line held a position, false if it was blank or a comment
+     */
+    private static boolean parseLine(CharBuffer view, int start, int end, int line, Consumer<ChessGame> positions) {
+        int first = start;
+        while (first < end && Character.isWhitespace(view.charAt(first))) {
+            first++;
+        }
+        if (first == end || view.charAt(first) == '#') {
+            return false;
+        }
+        ChessGame game;
+        try {
+            game = Fen.parse(view, first, end);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+        }
+        positions.accept(game);
+        return true;
+    }
+}
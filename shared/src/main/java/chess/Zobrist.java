@@ -0,0 +1,64 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ * <p>
+ * A position's key is the XOR of the keys of every piece on its square, the
+ * side to move, the castling rights and the en passant file. Making a move
+ * only has to XOR the keys that changed, so the key can be kept up to date
+ * incrementally.
+ */
+public final class Zobrist {
+
+    // Fixed seed so keys, and anything stored by key, stay the same between runs
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[] PIECE_SQUARE_KEYS = new long[12 * 64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECE_SQUARE_KEYS.length; i++) {
+            PIECE_SQUARE_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < CASTLING_KEYS.length; i++) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param pieceIndex index of the kind of piece (see {@link ChessBoard#pieceIndex})
+     * @param square     square the piece stands on (0 ~ 63)
+     * @return Key of that piece standing on that square
+     */
+    public static long pieceKey(int pieceIndex, int square) {
+        return PIECE_SQUARE_KEYS[(pieceIndex << 6) | square];
+    }
+
+    /**
+     * @param teamTurn        which team is to move
+     * @param castlingRights  castling rights (see {@link ChessGame#getCastlingRights()})
+     * @param enPassantSquare en passant square, or -1 if there is none
+     * @return Key of the parts of a position that are not on the board
+     */
+    public static long stateKey(ChessGame.TeamColor teamTurn, int castlingRights, int enPassantSquare) {
+        long key = CASTLING_KEYS[castlingRights];
+        if (teamTurn == ChessGame.TeamColor.BLACK) {
+            key ^= BLACK_TO_MOVE_KEY;
+        }
+        if (enPassantSquare >= 0) {
+            key ^= EN_PASSANT_KEYS[enPassantSquare & 7];
+        }
+        return key;
+    }
+}
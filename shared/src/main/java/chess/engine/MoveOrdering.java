@@ -0,0 +1,209 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+/**
+ * Decides the order the search tries moves in. Alpha-beta cuts off sooner when the best move comes first,
+ * so each move gets a score and the search picks the highest remaining one as it goes:
+ * <ol>
+ *     <li>the hash move from the transposition table, or the previous iteration's principal variation</li>
+ *     <li>captures and promotions, most valuable victim first and then least valuable attacker (MVV-LVA)</li>
+ *     <li>killer moves: quiet moves that caused a cutoff at the same ply elsewhere in the tree</li>
+ *     <li>other quiet moves by history: how often and how deep the same piece moving to the same square
+ *     caused a cutoff</li>
+ * </ol>
+ * Each heuristic can be switched off, which is how the benchmarks measure what it saves. Quiescence
+ * search always orders by MVV-LVA, since without it the capture sequences it follows blow up.
+ * A MoveOrdering belongs to one {@link Search} and keeps what it learns between iterations.
+ */
+public final class MoveOrdering {
+
+    public static final int HASH_MOVE = 1;
+    public static final int CAPTURES = 2;
+    public static final int KILLERS = 4;
+    public static final int HISTORY = 8;
+    public static final int NONE = 0;
+    public static final int ALL = HASH_MOVE | CAPTURES | KILLERS | HISTORY;
+
+    // Score bands, so each heuristic always outranks the ones below it
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    // History scores are halved once one reaches this, keeping them below the killer band
+    private static final int HISTORY_LIMIT = 1 << 20;
+    // MVV-LVA piece values in PieceType order, the evaluation's middlegame material so the two agree
+    private static final int[] PIECE_VALUES = new int[6];
+
+    static {
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            PIECE_VALUES[type.ordinal()] = PieceSquareTables.middlegameValue(type);
+        }
+    }
+
+    private final int heuristics;
+    // Two killer slots per ply, newest first
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    // Cutoff history per piece index and target square
+    private final int[] history = new int[12 * 64];
+    // Scores of the moves in the list being searched at each ply, by list position
+    private final int[][] scores = new int[Search.MAX_PLY + 1][256];
+
+    /**
+     * @param heuristics which heuristics to use, any of {@link #HASH_MOVE}, {@link #CAPTURES},
+     *                   {@link #KILLERS} and {@link #HISTORY} combined, or {@link #ALL}
+     */
+    public MoveOrdering(int heuristics) {
+        this.heuristics = heuristics;
+    }
+
+    /**
+     * Forgets the killers, which only make sense for one search tree, and halves the history so older
+     * results count for less
+     */
+    void newSearch() {
+        for (int[] slots : killers) {
+            slots[0] = 0;
+            slots[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Scores every move in the list; call before picking moves with {@link #next}
+     *
+     * @param board     the position the moves are from
+     * @param moves     legal moves at this ply
+     * @param ply       distance from the root
+     * @param firstMove hash move or principal variation move to try first, or 0 for none
+     */
+    void score(ChessBoard board, MoveList moves, int ply, int firstMove) {
+        int[] plyScores = scoresFor(moves, ply);
+        boolean useHashMove = (heuristics & HASH_MOVE) != 0 && firstMove != 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (useHashMove && move == firstMove) {
+                plyScores[i] = HASH_MOVE_SCORE;
+            } else if ((heuristics & CAPTURES) != 0 && (PackedMove.isCapture(move) || PackedMove.isPromotion(move))) {
+                plyScores[i] = CAPTURE_SCORE + captureScore(board, move);
+            } else if ((heuristics & KILLERS) != 0 && move == killers[ply][0]) {
+                plyScores[i] = KILLER_SCORE + 1;
+            } else if ((heuristics & KILLERS) != 0 && move == killers[ply][1]) {
+                plyScores[i] = KILLER_SCORE;
+            } else if ((heuristics & HISTORY) != 0) {
+                plyScores[i] = history[historyIndex(board, move)];
+            } else {
+                plyScores[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Scores the moves of a quiescence search by MVV-LVA alone, whatever heuristics are chosen
+     *
+     * @param board the position the moves are from
+     * @param moves captures and promotions, or every evasion when in check
+     * @param ply   distance from the root
+     */
+    void scoreCaptures(ChessBoard board, MoveList moves, int ply) {
+        int[] plyScores = scoresFor(moves, ply);
+        for (int i = 0; i < moves.size(); i++) {
+            plyScores[i] = captureScore(board, moves.get(i));
+        }
+    }
+
+    private int[] scoresFor(MoveList moves, int ply) {
+        if (scores[ply].length < moves.size()) {
+            scores[ply] = new int[moves.size()];
+        }
+        return scores[ply];
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to the given position. Picking one move at a time
+     * skips sorting the moves a cutoff never reaches.
+     *
+     * @param moves moves scored by {@link #score} at this ply
+     * @param ply   distance from the root
+     * @param index position to fill; every move before it has already been picked
+     * @return the move now at index
+     */
+    int next(MoveList moves, int ply, int index) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves.get(index);
+            moves.set(index, moves.get(best));
+            moves.set(best, move);
+            int score = plyScores[index];
+            plyScores[index] = plyScores[best];
+            plyScores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff, as a killer for this ply and in the history
+     *
+     * @param board the position the move was made from
+     * @param move  the move that cut off
+     * @param ply   distance from the root
+     * @param depth remaining depth, deeper cutoffs count for more
+     */
+    void recordCutoff(ChessBoard board, int move, int ply, int depth) {
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+            return;  // Already ordered by MVV-LVA
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = historyIndex(board, move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * @return Killer move in the given slot (0 or 1) at a ply, or 0 if there is none
+     */
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    private static int historyIndex(ChessBoard board, int move) {
+        return (board.getPiece(PackedMove.from(move)).getPieceIndex() << 6) | PackedMove.to(move);
+    }
+
+    /**
+     * @return MVV-LVA score of a capture, plus the value of any promotion, or 0 for a quiet move
+     */
+    private static int captureScore(ChessBoard board, int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move)) {
+            ChessPiece victim = board.getPiece(PackedMove.to(move));
+            ChessPiece attacker = board.getPiece(PackedMove.from(move));
+            // En passant captures a pawn on another square
+            int victimValue = (victim == null) ? PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                                               : PIECE_VALUES[victim.getPieceType().ordinal()];
+            score += victimValue * 16 - PIECE_VALUES[attacker.getPieceType().ordinal()] / 10;
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+        }
+        return score;
+    }
+}
@@ -0,0 +1,100 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Searches one position on several threads at once ("Lazy SMP"). Every thread runs its own
+ * {@link Search} over the same {@link TranspositionTable}, so what one thread learns is found by the
+ * others when they reach the same positions. Helper threads start at alternating depths so they do not
+ * all search the same tree in lockstep. The calling thread's result is returned once it reaches its
+ * limits, and the helpers are stopped then.
+ */
+public class ParallelSearch {
+
+    private final ChessGame game;
+    private final TranspositionTable table;
+    private final int threadCount;
+    private volatile Search[] running = new Search[0];
+    private volatile boolean stopped;
+
+    /**
+     * @param game        the position to search from; it is copied and left unchanged
+     * @param table       transposition table shared by all threads
+     * @param threadCount number of threads to search with, including the calling thread
+     */
+    public ParallelSearch(ChessGame game, TranspositionTable table, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.game = new ChessGame(game);
+        this.table = table;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Searches on all threads until the calling thread reaches one of the limits
+     *
+     * @param limits when to stop, as for {@link Search#search(SearchLimits)}
+     * @return the calling thread's result, with the nodes of all threads added up
+     */
+    public SearchResult search(SearchLimits limits) {
+        Search[] searches = new Search[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            searches[i] = new Search(game, table);
+        }
+        running = searches;
+        if (stopped) {
+            stopAll(searches);
+        }
+        table.newSearch();
+
+        // Helpers only stop when told to, so the main thread's limits decide when the search ends
+        SearchLimits helperLimits = new SearchLimits(0, 0, limits.millis());
+        Thread[] helpers = new Thread[threadCount - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = searches[i + 1];
+            int startDepth = 1 + (i & 1);
+            helpers[i] = new Thread(() -> helper.search(helperLimits, startDepth), "search-helper-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+
+        SearchResult result = searches[0].search(limits, 1);
+
+        stopAll(searches);
+        long nodes = result.nodes();
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                helpers[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            nodes += searches[i + 1].getNodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.millis(),
+                result.principalVariation());
+    }
+
+    /**
+     * Asks every thread of a running search to stop as soon as possible. Like {@link Search#stop()},
+     * later searches on this object also stop right away.
+     */
+    public void stop() {
+        stopped = true;
+        stopAll(running);
+    }
+
+    private static void stopAll(Search[] searches) {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * @return Number of threads the search runs on
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+}
@@ -0,0 +1,327 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the best move for the team to move with a negamax alpha-beta search. Iterative deepening
+ * searches one ply deeper each round until a limit is reached, and the best line of each round is
+ * tried first in the next. Quiescence search follows captures past the last ply, so a position is
+ * never judged in the middle of an exchange. Results are kept in a {@link TranspositionTable}, so
+ * positions reached again by another move order are not searched twice, and {@link MoveOrdering}
+ * tries the moves most likely to cause a cutoff first.
+ * <p>
+ * A Search works on its own copy of the game, so the game passed in is never changed. One Search
+ * should only be used by one thread at a time; {@link #stop()} may be called from any thread.
+ */
+public class Search {
+
+    public static final int MATE_SCORE = 30000;
+    public static final int MAX_PLY = 128;
+    private static final int INFINITY = 32000;
+    // How often (in nodes) the clock is read
+    private static final int TIME_CHECK_INTERVAL = 2048;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private final ChessGame game;
+    private final TranspositionTable table;
+    private MoveOrdering ordering = new MoveOrdering(MoveOrdering.ALL);
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    // Triangular principal variation table: pvTable[ply] holds the best line found from ply onwards
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private int[] previousPv = new int[0];
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    /**
+     * @param game the position to search from; it is copied and left unchanged
+     */
+    public Search(ChessGame game) {
+        this(game, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param game  the position to search from; it is copied and left unchanged
+     * @param table transposition table to use, which may be shared with searches on other threads
+     */
+    public Search(ChessGame game, TranspositionTable table) {
+        this.game = new ChessGame(game);
+        this.table = table;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Chooses which move ordering heuristics the search uses, all of them by default. Turning some off
+     * only makes the search slower; it exists to measure what each one saves.
+     *
+     * @param heuristics flags from {@link MoveOrdering}, e.g. {@link MoveOrdering#ALL}
+     */
+    public void setMoveOrdering(int heuristics) {
+        ordering = new MoveOrdering(heuristics);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. It still returns the best move of the last
+     * finished iteration. Once stopped, later searches on this object also stop right away.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Searches the position until one of the limits is reached
+     *
+     * @param limits when to stop; with no limits at all the search runs to {@link #MAX_PLY}
+     * @return the best move found with its score and principal variation
+     */
+    public SearchResult search(SearchLimits limits) {
+        table.newSearch();
+        return search(limits, 1);
+    }
+
+    /**
+     * Runs the iterative deepening loop from the given depth without starting a new table generation,
+     * for helper threads that join a search already under way (see {@link ParallelSearch})
+     */
+    SearchResult search(SearchLimits limits, int startDepth) {
+        long start = System.nanoTime();
+        nodes = 0;
+        aborted = false;
+        nodeLimit = (limits.nodes() > 0) ? limits.nodes() : Long.MAX_VALUE;
+        deadline = (limits.millis() > 0) ? start + limits.millis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = (limits.depth() > 0) ? Math.min(limits.depth(), MAX_PLY) : MAX_PLY;
+        previousPv = new int[0];
+        ordering.newSearch();
+
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = startDepth; depth <= maxDepth; depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            previousPv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, pvLength[0]);
+            if (Math.abs(score) >= MATE_SCORE - MAX_PLY || previousPv.length == 0) {
+                break;  // A forced mate, or no legal moves: searching deeper will not change the answer
+            }
+        }
+
+        int[] pv = previousPv;
+        if (pv.length == 0 && completedDepth == 0) {
+            // Stopped before the first iteration finished: fall back to any legal move
+            MoveList moves = moveLists[0];
+            moves.clear();
+            game.generateLegalMoves(moves);
+            pv = moves.isEmpty() ? new int[0] : new int[]{moves.get(0)};
+        }
+        List<ChessMove> line = new ArrayList<>(pv.length);
+        for (int move : pv) {
+            line.add(PackedMove.toChessMove(move));
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(line.isEmpty() ? null : line.get(0), bestScore, completedDepth, nodes, millis,
+                List.copyOf(line));
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (ply > 0 && (game.getHalfmoveClock() >= 100 || game.isRepetition())) {
+            return 0;
+        }
+        boolean inCheck = game.getCheckers(game.getTeamTurn()) != 0;
+        if (inCheck) {
+            depth++;  // Never stop the search while in check
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            // The root always searches, so there is a move and a principal variation to return
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateLegalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        int firstMove = (hashMove != 0) ? hashMove : (ply < previousPv.length) ? previousPv[ply] : 0;
+        ordering.score(game.getBoard(), moves, ply, firstMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            game.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        ordering.recordCutoff(game.getBoard(), move, ply, depth);
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = (bestScore >= beta) ? TranspositionTable.LOWER_BOUND
+                : (bestScore > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, (bound == TranspositionTable.UPPER_BOUND) ? 0 : bestMove, toTableScore(bestScore, ply),
+                depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted from the position itself,
+     * so they stay right when the position is reached at another ply
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet. When not in check, the team to
+     * move may also "stand pat" on the static evaluation instead of capturing.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        boolean inCheck = game.getCheckers(game.getTeamTurn()) != 0;
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = game.evaluate();
+            if (bestScore >= beta || ply >= MAX_PLY) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        } else if (ply >= MAX_PLY) {
+            return game.evaluate();
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateLegalMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        if (!inCheck) {
+            // Out of check, only captures and promotions are searched
+            int kept = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                    moves.set(kept++, move);
+                }
+            }
+            moves.truncate(kept);
+        }
+        ordering.scoreCaptures(game.getBoard(), moves, ply);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, ply, i);
+            game.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLength - ply - 1);
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    /**
+     * Counts a node and checks the limits
+     *
+     * @return True if the search must stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (nodes >= nodeLimit || stopRequested
+                || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * @return Positions visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,39 @@
+package chess.engine;
+
+/**
+ * How far a search may go. The search stops at whichever limit it reaches first; a limit of 0 means
+ * that limit is not used.
+ *
+ * @param depth  deepest iteration to search, in plies
+ * @param nodes  most positions to visit
+ * @param millis most wall-clock time to spend, in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    public SearchLimits {
+        if (depth < 0 || nodes < 0 || millis < 0) {
+            throw new IllegalArgumentException("Search limits may not be negative");
+        }
+    }
+
+    /**
+     * @return limits that only stop after the given depth
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * @return limits that only stop after the given time, in milliseconds
+     */
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(0, 0, millis);
+    }
+
+    /**
+     * @return limits that only stop after visiting the given number of nodes
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+}
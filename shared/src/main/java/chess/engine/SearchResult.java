@@ -0,0 +1,34 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Outcome of a search
+ *
+ * @param bestMove           move to play, or null if the team to move has no legal move
+ * @param score              value of the position in centipawns for the team to move; mates are scored
+ *                           as {@link Search#MATE_SCORE} minus the number of plies to mate
+ * @param depth              deepest iteration that finished
+ * @param nodes              positions visited, including quiescence
+ * @param millis             time spent, in milliseconds
+ * @param principalVariation expected line of play starting with bestMove
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long millis,
+                           List<ChessMove> principalVariation) {
+
+    /**
+     * @return True if the score is a forced mate for either team
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE_SCORE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return Nodes searched per second
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, millis);
+    }
+}
@@ -0,0 +1,152 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, keyed by a position's 64-bit Zobrist key.
+ * <p>
+ * The table is one long[] of buckets. Each bucket has two entries of two longs each: the key XORed with
+ * the data, and the data. The first entry keeps the deepest result (depth-preferred), and the second
+ * always takes the newest one (always-replace). Threads read and write without locking. A write torn
+ * by another thread leaves a key and data that no longer XOR back to the probed key, so the probe
+ * simply misses.
+ * <p>
+ * Data layout: bits 0 ~ 19 packed move, 20 ~ 35 score + 32768, 36 ~ 43 depth, 44 ~ 45 bound,
+ * 46 ~ 53 search generation
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * @param megabytes most memory to use; the table is rounded down to a power of two buckets
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / LONGS_PER_BUCKET));
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key Zobrist key of the position
+     * @return the stored data (read it with the static accessors), or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+        for (int entry = index; entry < index + LONGS_PER_BUCKET; entry += 2) {
+            long data = table[entry + 1];
+            if ((table[entry] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result
+     *
+     * @param key   Zobrist key of the position
+     * @param move  best packed move found, or 0 if none
+     * @param score score of the position; mate scores should be relative to this position, not the root
+     * @param depth depth the position was searched to
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int currentGeneration = generation;
+        long data = (move & 0xFFFFFL)
+                | ((long) ((score + 32768) & 0xFFFF) << 20)
+                | ((long) Math.min(Math.max(depth, 0), 255) << 36)
+                | ((long) bound << 44)
+                | ((long) currentGeneration << 46);
+        int index = bucketIndex(key);
+        long deepData = table[index + 1];
+        boolean sameKey = (table[index] ^ deepData) == key;
+        // Keep the deep entry unless this result is at least as deep, replaces itself or the entry is stale
+        if (sameKey || depth >= depth(deepData) || generation(deepData) != currentGeneration) {
+            if (sameKey && move == 0) {
+                data |= deepData & 0xFFFFFL;  // Keep the best move we already knew
+            }
+            table[index] = key ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + 2] = key ^ data;
+            table[index + 3] = data;
+        }
+    }
+
+    /**
+     * Marks the start of a new search, so entries from older searches are replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * @return Permille of the first 1000 entries used by the current search, an estimate of how full the table is
+     */
+    public int hashfull() {
+        int used = 0;
+        int entries = Math.min(1000, table.length / 2);
+        for (int i = 0; i < entries; i++) {
+            long data = table[i * 2 + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / Math.max(1, entries);
+    }
+
+    /**
+     * @return Number of entries the table can hold
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFF);
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> 20) & 0xFFFF) - 32768;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 36) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 44) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 46) & 0xFF);
+    }
+}
@@ -0,0 +1,156 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.piecemoves.MoveList;
+
+/**
+ * Plays out the movetext of Portable Game Notation games, e.g.
+ * {@code 1. e4 e5 2. Nf3 {the usual} Nc6 (2... d6 3. d4) 3. Bb5 a6 1/2-1/2}
+ * <p>
+ * Move numbers, comments, variations and numeric annotation glyphs are skipped; only the main line is played.
+ */
+public final class Pgn {
+
+    private Pgn() {}
+
+    /**
+     * Plays a game from the start position, or from its FEN tag if it has one. The game is marked as ended
+     * if its movetext or Result tag gives a result.
+     *
+     * @param pgn a game read by {@link PgnReader}
+     * @return the game after its last move, with every move on its undo stack
+     * @throws IllegalArgumentException if the start position or a move is not valid; the message gives the ply
+     */
+    public static ChessGame play(PgnGame pgn) {
+        String fen = pgn.tags().get("FEN");
+        ChessGame game = (fen == null) ? new ChessGame() : Fen.parse(fen);
+        String result = play(game, pgn.movetext());
+        if (result == null) {
+            result = pgn.tags().get("Result");
+        }
+        if (result != null && !result.equals("*")) {
+            game.setEnded();
+        }
+        return game;
+    }
+
+    /**
+     * Makes the main line moves of some movetext on a game
+     *
+     * @param game     the game to make the moves on
+     * @param movetext the moves in SAN, with anything else PGN allows around them
+     * @return the result that ends the movetext, such as "1-0" or "*", or null if there is none
+     * @throws IllegalArgumentException if a move is not valid; the message gives the ply
+     */
+    public static String play(ChessGame game, CharSequence movetext) {
+        MoveList scratch = new MoveList();
+        int length = movetext.length();
+        int i = 0;
+        while (i < length) {
+            char c = movetext.charAt(i);
+            if (Character.isWhitespace(c) || c == '.') {
+                i++;
+            } else if (c == '{') {
+                i = skipComment(movetext, i);
+            } else if (c == ';') {
+                i = skipToLineEnd(movetext, i);
+            } else if (c == '(') {
+                i = skipVariation(movetext, i);
+            } else if (c == '$') {
+                i = skipDigits(movetext, i + 1);
+            } else if (c == '*') {
+                return "*";
+            } else if (c >= '1' && c <= '9' && !isResult(movetext, i, tokenEnd(movetext, i))) {
+                // A move number, maybe run straight into its move as in "12.e4"; the dots are skipped next
+                i = skipDigits(movetext, i);
+            } else {
+                int end = tokenEnd(movetext, i);
+                if (isResult(movetext, i, end)) {
+                    return movetext.subSequence(i, end).toString();
+                }
+                try {
+                    game.makeMove(San.parse(game, movetext, i, end, scratch));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Ply " + (game.getPly() + 1) + ": " + e.getMessage(), e);
+                }
+                i = end;
+            }
+        }
+        return null;
+    }
+
+    private static int tokenEnd(CharSequence movetext, int i) {
+        while (i < movetext.length() && !Character.isWhitespace(movetext.charAt(i))
+                && "{};()$".indexOf(movetext.charAt(i)) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isResult(CharSequence movetext, int start, int end) {
+        int length = end - start;
+        if (length == 3) {
+            return regionMatches(movetext, start, "1-0") || regionMatches(movetext, start, "0-1");
+        }
+        return length == 7 && regionMatches(movetext, start, "1/2-1/2");
+    }
+
+    private static boolean regionMatches(CharSequence movetext, int start, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (movetext.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipComment(CharSequence movetext, int i) {
+        while (i < movetext.length() && movetext.charAt(i) != '}') {
+            i++;
+        }
+        if (i == movetext.length()) {
+            throw new IllegalArgumentException("Comment is not closed");
+        }
+        return i + 1;
+    }
+
+    private static int skipToLineEnd(CharSequence movetext, int i) {
+        while (i < movetext.length() && movetext.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips a variation and any variations nested in it, along with their comments
+     */
+    private static int skipVariation(CharSequence movetext, int i) {
+        int depth = 0;
+        while (i < movetext.length()) {
+            char c = movetext.charAt(i);
+            if (c == '{') {
+                i = skipComment(movetext, i);
+                continue;
+            }
+            if (c == ';') {
+                i = skipToLineEnd(movetext, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        throw new IllegalArgumentException("Variation is not closed");
+    }
+
+    private static int skipDigits(CharSequence movetext, int i) {
+        while (i < movetext.length() && Character.isDigit(movetext.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
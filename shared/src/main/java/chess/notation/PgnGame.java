@@ -0,0 +1,12 @@
+package chess.notation;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file, not yet played out; see {@link Pgn#play(PgnGame)}
+ *
+ * @param number   position of the game in its file, starting at 1
+ * @param tags     tag pairs such as Event, White, Black and Result, in the order they were written
+ * @param movetext the moves, with move numbers, comments, variations and the result as written
+ */
+public record PgnGame(long number, Map<String, String> tags, String movetext) {}
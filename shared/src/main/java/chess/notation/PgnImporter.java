@@ -0,0 +1,122 @@
+package chess.notation;
+
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Imports the games of a PGN file, reading them on the calling thread and playing out their moves on a
+ * fork-join pool. Games are handed over in file order on the calling thread, and only a fixed number are
+ * read ahead of the one being handed over, so memory stays flat however long the file is.
+ */
+public class PgnImporter {
+
+    /**
+     * @param games    games read
+     * @param imported games whose moves were all legal
+     * @param rejected games with an illegal move or position, or that failed to play out
+     * @param millis   time taken, reading included
+     */
+    public record Result(long games, long imported, long rejected, long millis) {
+        public double gamesPerSecond() {
+            return games * 1000.0 / Math.max(1, millis);
+        }
+    }
+
+    /**
+     * Receives the games of an import, one at a time on the thread that called {@link #run}
+     *
+     * @param <E> exception the sink may throw, which stops the import
+     */
+    public interface Sink<E extends Exception> {
+        void imported(PgnGame pgn, ChessGame game) throws E;
+
+        default void rejected(PgnGame pgn, IllegalArgumentException reason) throws E {}
+    }
+
+    record Played(PgnGame pgn, ChessGame game, IllegalArgumentException error) {}
+
+    private final ForkJoinPool pool;
+    private final int readAhead;
+
+    /**
+     * @param pool      where to play out the games
+     * @param readAhead how many games may be read before the oldest is handed over
+     */
+    public PgnImporter(ForkJoinPool pool, int readAhead) {
+        this.pool = pool;
+        this.readAhead = Math.max(1, readAhead);
+    }
+
+    /**
+     * Plays out games on the common pool, reading ahead a few games per thread
+     */
+    public PgnImporter() {
+        this(ForkJoinPool.commonPool(), 4 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Reads every game left in a reader and hands each over to the sink
+     *
+     * @param reader where to read the games from
+     * @param sink   receives every game, played out or rejected
+     * @return how many games were read, imported and rejected, and how fast
+     * @throws IOException if reading fails
+     * @throws E           if the sink fails
+     */
+    public <E extends Exception> Result run(PgnReader reader, Sink<E> sink) throws IOException, E {
+        long start = System.nanoTime();
+        ArrayDeque<ForkJoinTask<Played>> playing = new ArrayDeque<>(readAhead);
+        long games = 0;
+        long imported = 0;
+        try {
+            PgnGame pgn;
+            while ((pgn = reader.next()) != null) {
+                games++;
+                PgnGame next = pgn;
+                playing.add(pool.submit(() -> play(next)));
+                if (playing.size() >= readAhead) {
+                    imported += handOver(playing.poll(), sink);
+                }
+            }
+            while (!playing.isEmpty()) {
+                imported += handOver(playing.poll(), sink);
+            }
+        } finally {
+            for (ForkJoinTask<Played> task : playing) {
+                task.cancel(false);
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(games, imported, games - imported, millis);
+    }
+
+    /**
+     * Plays out one game, turning any failure into a rejection so one bad game cannot stop the import
+     */
+    static Played play(PgnGame pgn) {
+        try {
+            return new Played(pgn, Pgn.play(pgn), null);
+        } catch (IllegalArgumentException e) {
+            return new Played(pgn, null, e);
+        } catch (RuntimeException e) {
+            return new Played(pgn, null, new IllegalArgumentException("Game could not be played: " + e, e));
+        }
+    }
+
+    /**
+     * @return 1 if the game was imported, 0 if it was rejected
+     */
+    private static <E extends Exception> int handOver(ForkJoinTask<Played> task, Sink<E> sink) throws E {
+        Played played = task.join();
+        if (played.error() != null) {
+            sink.rejected(played.pgn(), played.error());
+            return 0;
+        }
+        sink.imported(played.pgn(), played.game());
+        return 1;
+    }
+}
@@ -0,0 +1,155 @@
+package chess.notation;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the games of a PGN file one at a time. Only the game being read is held in memory, so archives
+ * far larger than the heap can be read straight through.
+ */
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BufferedReader in;
+    // The first tag line of the next game, when it came straight after the last game's moves
+    private String pending;
+    private long games;
+
+    /**
+     * @param in where to read the games from; closed by {@link #close()}
+     */
+    public PgnReader(Reader in) {
+        this.in = (in instanceof BufferedReader buffered) ? buffered : new BufferedReader(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a PGN file for reading through a file channel and a fixed size buffer. Bytes that are not
+     * UTF-8, as in older archives written in Latin-1, are replaced rather than stopping the read.
+     *
+     * @param path the file to read
+     * @return a reader positioned at the first game
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        var decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new PgnReader(Channels.newReader(channel, decoder, BUFFER_SIZE));
+    }
+
+    /**
+     * Reads the next game's tag pairs and movetext. Tag pairs that cannot be read are skipped.
+     *
+     * @return the next game, or null at the end of the file
+     * @throws IOException if reading fails
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        StringBuilder movetext = new StringBuilder();
+        boolean inComment = false;
+        boolean blankAfterTags = false;
+        String line;
+        while ((line = readLine()) != null) {
+            if (inComment) {
+                movetext.append(line).append('\n');
+                inComment = endsInComment(line, true);
+                continue;
+            }
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                if (!movetext.isEmpty()) {
+                    break;
+                }
+                blankAfterTags = !tags.isEmpty();
+                continue;
+            }
+            if (trimmed.charAt(0) == '%') {
+                continue;  // Escaped line, for other programs
+            }
+            if (trimmed.charAt(0) == '[') {
+                if (!movetext.isEmpty() || blankAfterTags) {
+                    pending = line;  // The next game starts without a blank line before it
+                    break;
+                }
+                readTag(trimmed, tags);
+                continue;
+            }
+            movetext.append(line).append('\n');
+            inComment = endsInComment(line, false);
+        }
+        if (tags.isEmpty() && movetext.isEmpty()) {
+            return null;
+        }
+        return new PgnGame(++games, tags, movetext.toString());
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readLine() throws IOException {
+        if (pending != null) {
+            String line = pending;
+            pending = null;
+            return line;
+        }
+        return in.readLine();
+    }
+
+    /**
+     * @return True if a brace comment is still open at the end of the line
+     */
+    private static boolean endsInComment(String line, boolean inComment) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inComment) {
+                inComment = c != '}';
+            } else if (c == '{') {
+                inComment = true;
+            } else if (c == ';') {
+                return false;  // The rest of the line is a comment
+            }
+        }
+        return inComment;
+    }
+
+    /**
+     * Reads a tag pair like {@code [White "Carlsen, Magnus"]}, where the value may escape quotes and
+     * backslashes with a backslash
+     */
+    private static void readTag(String line, Map<String, String> tags) {
+        int nameEnd = 1;
+        while (nameEnd < line.length() && !Character.isWhitespace(line.charAt(nameEnd)) && line.charAt(nameEnd) != '"') {
+            nameEnd++;
+        }
+        int quote = line.indexOf('"', nameEnd);
+        if (nameEnd == 1 || quote < 0) {
+            return;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = quote + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                tags.put(line.substring(1, nameEnd), value.toString());
+                return;
+            }
+            if (c == '\\' && i + 1 < line.length()) {
+                c = line.charAt(++i);
+            }
+            value.append(c);
+        }
+    }
+}
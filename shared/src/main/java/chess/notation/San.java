@@ -0,0 +1,341 @@
+package chess.notation;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.piecemoves.AttackTables;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+/**
+ * Writes and reads moves in Standard Algebraic Notation, e.g. {@code e4}, {@code Nbd7}, {@code exd8=Q+} or
+ * {@code O-O}. Reading finds the one legal move in the game that fits; check, mate and annotation marks are
+ * ignored, as are missing or extra capture marks, and castling may be written with zeros.
+ */
+public final class San {
+
+    private San() {}
+
+    /**
+     * @param game the game the move is made in; it is not changed
+     * @param move a legal packed move (see {@link PackedMove})
+     * @return the move in SAN, ending in + for check or # for mate
+     */
+    public static String format(ChessGame game, int move) {
+        return appendTo(new StringBuilder(8), game, move, new MoveList()).toString();
+    }
+
+    /**
+     * @param game the game the move is made in; it is not changed
+     * @param move the move to describe
+     * @return the move in SAN, ending in + for check or # for mate
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        try {
+            return format(game, game.legalMove(move));
+        } catch (InvalidMoveException e) {
+            throw new IllegalArgumentException("Illegal move: " + Uci.format(move), e);
+        }
+    }
+
+    /**
+     * Appends a move in SAN, so writers of many moves can reuse one builder and move list. Check is worked
+     * out from the board without making the move, so the game may be read by other threads meanwhile;
+     * only a move that gives check is played on a copy, to see whether it is mate.
+     *
+     * @param san     where to append the move
+     * @param game    the game the move is made in; it is not changed
+     * @param move    a legal packed move (see {@link PackedMove})
+     * @param scratch list to generate other pieces' moves into when the move may need disambiguating
+     * @return the same builder
+     */
+    public static StringBuilder appendTo(StringBuilder san, ChessGame game, int move, MoveList scratch) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            san.append((to > from) ? "O-O" : "O-O-O");
+        } else {
+            ChessPiece piece = game.getBoard().getPiece(from);
+            boolean capture = PackedMove.isCapture(move);
+            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                if (capture) {
+                    san.append((char) ('a' + (from & 7)));
+                }
+            } else {
+                san.append(Uci.pieceLetter(piece.getPieceType()));
+                appendDisambiguation(san, game, piece, from, to, scratch);
+            }
+            if (capture) {
+                san.append('x');
+            }
+            san.append(Uci.squareName(to));
+            if (PackedMove.isPromotion(move)) {
+                san.append('=').append(Uci.pieceLetter(PackedMove.promotion(move)));
+            }
+        }
+
+        if (givesCheck(game.getBoard(), move)) {
+            ChessGame after = new ChessGame(game);
+            after.makeMove(move);
+            san.append(after.hasLegalMove(after.getTeamTurn()) ? '+' : '#');
+        }
+        return san;
+    }
+
+    /**
+     * Works out whether a legal move checks the enemy king from the pieces it moves and the lines it opens.
+     * The king is not in check before the move, so only the moved piece, a castling rook and sliders behind
+     * the squares the move empties can give check.
+     */
+    private static boolean givesCheck(ChessBoard board, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessGame.TeamColor color = piece.getTeamColor();
+        int king = board.getKingSquare(color.opponent());
+        if (king < 0) {
+            return false;
+        }
+        ChessPiece.PieceType type = PackedMove.isPromotion(move) ? PackedMove.promotion(move) : piece.getPieceType();
+
+        long occupied = (board.getOccupied() & ~(1L << from)) | (1L << to);
+        long straight = board.getPieces(color, ChessPiece.PieceType.ROOK)
+                | board.getPieces(color, ChessPiece.PieceType.QUEEN);
+        long diagonal = board.getPieces(color, ChessPiece.PieceType.BISHOP)
+                | board.getPieces(color, ChessPiece.PieceType.QUEEN);
+        straight &= ~(1L << from);
+        diagonal &= ~(1L << from);
+        switch (type) {
+            case PAWN -> {
+                if ((AttackTables.pawnAttacks(color, to) & (1L << king)) != 0) {
+                    return true;
+                }
+            }
+            case KNIGHT -> {
+                if ((AttackTables.knightAttacks(to) & (1L << king)) != 0) {
+                    return true;
+                }
+            }
+            case ROOK -> straight |= 1L << to;
+            case BISHOP -> diagonal |= 1L << to;
+            case QUEEN -> {
+                straight |= 1L << to;
+                diagonal |= 1L << to;
+            }
+            default -> {}
+        }
+        if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+            occupied &= ~(1L << (to + ((color == ChessGame.TeamColor.WHITE) ? -8 : 8)));
+        }
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rookFrom = (to > from) ? to + 1 : to - 2;
+            int rookTo = (to > from) ? to - 1 : to + 1;
+            occupied = (occupied & ~(1L << rookFrom)) | (1L << rookTo);
+            straight = (straight & ~(1L << rookFrom)) | (1L << rookTo);
+        }
+        return (AttackTables.rookAttacks(king, occupied) & straight) != 0
+                || (AttackTables.bishopAttacks(king, occupied) & diagonal) != 0;
+    }
+
+    /**
+     * Appends the file, rank or square of the moving piece if another piece of the same kind could also
+     * move to the destination: the file if that tells them apart, else the rank, else both
+     */
+    private static void appendDisambiguation(StringBuilder san, ChessGame game, ChessPiece piece, int from, int to,
+                                             MoveList scratch) {
+        scratch.clear();
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        long others = game.getBoard().getPieces(piece.getTeamColor(), piece.getPieceType()) & ~(1L << from);
+        for (; others != 0; others &= others - 1) {
+            int other = Long.numberOfTrailingZeros(others);
+            int size = scratch.size();
+            game.validMoves(other, scratch);
+            for (int i = size; i < scratch.size(); i++) {
+                if (PackedMove.to(scratch.get(i)) == to) {
+                    ambiguous = true;
+                    sameFile |= (other & 7) == (from & 7);
+                    sameRank |= (other >>> 3) == (from >>> 3);
+                    break;
+                }
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + (from >>> 3)));
+        } else {
+            san.append(Uci.squareName(from));
+        }
+    }
+
+    /**
+     * @param game the game the move is made in
+     * @param san  the move in SAN
+     * @return the legal packed move (see {@link PackedMove}) the text describes
+     * @throws IllegalArgumentException if the text is not SAN or does not describe exactly one legal move
+     */
+    public static int parse(ChessGame game, CharSequence san) {
+        return parse(game, san, 0, san.length(), new MoveList());
+    }
+
+    /**
+     * Reads a move out of part of a character sequence without copying it
+     *
+     * @param game    the game the move is made in
+     * @param san     characters holding the move
+     * @param start   index of the first character of the move
+     * @param end     index after the last character of the move
+     * @param scratch list to generate candidate moves into; it is cleared first
+     * @return the legal packed move (see {@link PackedMove}) the text describes
+     * @throws IllegalArgumentException if the text is not SAN or does not describe exactly one legal move
+     */
+    public static int parse(ChessGame game, CharSequence san, int start, int end, MoveList scratch) {
+        int last = end;
+        while (last > start && "+#!?".indexOf(san.charAt(last - 1)) >= 0) {
+            last--;
+        }
+        if (last - start < 2) {
+            throw error("Not a move", san, start, end);
+        }
+        scratch.clear();
+        char first = san.charAt(start);
+        if (first == 'O' || first == '0') {
+            return parseCastling(game, san, start, last, end, scratch);
+        }
+
+        ChessPiece.PieceType type = pieceType(first);
+        int i = start;
+        if (type == null) {
+            type = ChessPiece.PieceType.PAWN;
+        } else {
+            i++;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN) {
+            promotion = pieceType(Character.toUpperCase(san.charAt(last - 1)));
+            if (promotion != null && (promotion == ChessPiece.PieceType.KING || !isRank(san.charAt(last - 2))
+                    && san.charAt(last - 2) != '=')) {
+                promotion = null;
+            }
+            if (promotion != null) {
+                last--;
+                if (san.charAt(last - 1) == '=') {
+                    last--;
+                }
+            }
+        }
+        if (last - i < 2 || !isFile(san.charAt(last - 2)) || !isRank(san.charAt(last - 1))) {
+            throw error("Not a move", san, start, end);
+        }
+        int to = ChessPosition.toSquare(san.charAt(last - 1) - '0', san.charAt(last - 2) - 'a' + 1);
+
+        // Whatever lies between the piece and the destination narrows down where it comes from
+        int fromFile = -1;
+        int fromRank = -1;
+        for (; i < last - 2; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a';
+            } else if (isRank(c)) {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw error("Not a move", san, start, end);
+            }
+        }
+        if (type == ChessPiece.PieceType.PAWN && fromFile < 0) {
+            fromFile = to & 7;  // A pawn move without a file is a push along the destination file
+        }
+
+        ChessGame.TeamColor color = game.getTeamTurn();
+        ChessBoard board = game.getBoard();
+        int found = 0;
+        int count = 0;
+        for (long pieces = board.getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            if ((fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            int size = scratch.size();
+            game.validMoves(from, scratch);
+            for (int m = size; m < scratch.size(); m++) {
+                int move = scratch.get(m);
+                if (PackedMove.to(move) == to && PackedMove.promotion(move) == promotion
+                        && !PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+                    found = move;
+                    count++;
+                }
+            }
+        }
+        if (count == 0) {
+            throw error("Illegal move", san, start, end);
+        }
+        if (count > 1) {
+            throw error("Ambiguous move", san, start, end);
+        }
+        return found;
+    }
+
+    /**
+     * Reads O-O or O-O-O, also written 0-0 and 0-0-0
+     */
+    private static int parseCastling(ChessGame game, CharSequence san, int start, int last, int end,
+                                     MoveList scratch) {
+        char letter = san.charAt(start);
+        int length = last - start;
+        for (int i = start; i < last; i++) {
+            if (san.charAt(i) != (((i - start) % 2 == 0) ? letter : '-')) {
+                throw error("Not a move", san, start, end);
+            }
+        }
+        if (length != 3 && length != 5) {
+            throw error("Not a move", san, start, end);
+        }
+        boolean kingSide = length == 3;
+        int king = game.getBoard().getKingSquare(game.getTeamTurn());
+        if (king >= 0) {
+            game.validMoves(king, scratch);
+        }
+        for (int i = 0; i < scratch.size(); i++) {
+            int move = scratch.get(i);
+            if (PackedMove.hasFlag(move, PackedMove.CASTLE) && (PackedMove.to(move) > king) == kingSide) {
+                return move;
+            }
+        }
+        throw error("Illegal move", san, start, end);
+    }
+
+    /**
+     * @return the piece type of an upper case SAN letter, or null for anything else
+     */
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+
+    private static IllegalArgumentException error(String problem, CharSequence san, int start, int end) {
+        return new IllegalArgumentException(problem + ": " + san.subSequence(start, end));
+    }
+}
@@ -0,0 +1,138 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.piecemoves.PackedMove;
+
+/**
+ * Writes and reads moves in the coordinate notation of the Universal Chess Interface, e.g. {@code e2e4}
+ * or {@code e7e8q}: the start and end squares, then the promotion piece in lower case
+ */
+public final class Uci {
+
+    // Names of the squares, a1 = 0
+    private static final String[] SQUARE_NAMES = new String[64];
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARE_NAMES[square] = new String(new char[] {(char) ('a' + (square & 7)), (char) ('1' + (square >>> 3))});
+        }
+    }
+
+    private Uci() {}
+
+    /**
+     * @param square 0 ~ 63
+     * @return the name of the square, e.g. "e4"
+     */
+    public static String squareName(int square) {
+        return SQUARE_NAMES[square];
+    }
+
+    /**
+     * @param move a packed move (see {@link PackedMove})
+     * @return the move in coordinate notation
+     */
+    public static String format(int move) {
+        return appendTo(new StringBuilder(5), move).toString();
+    }
+
+    /**
+     * @param move a move
+     * @return the move in coordinate notation
+     */
+    public static String format(ChessMove move) {
+        return format(PackedMove.of(move.getStartPosition().getSquare(), move.getEndPosition().getSquare(),
+                move.getPromotionPiece(), 0));
+    }
+
+    /**
+     * Appends a move in coordinate notation, so writers of many moves can reuse one builder
+     *
+     * @param name where to append the move
+     * @param move a packed move (see {@link PackedMove})
+     * @return the same builder
+     */
+    public static StringBuilder appendTo(StringBuilder name, int move) {
+        name.append(SQUARE_NAMES[PackedMove.from(move)]).append(SQUARE_NAMES[PackedMove.to(move)]);
+        if (PackedMove.isPromotion(move)) {
+            name.append(Character.toLowerCase(pieceLetter(PackedMove.promotion(move))));
+        }
+        return name;
+    }
+
+    /**
+     * Reads a move without checking it against any position
+     *
+     * @param uci the move in coordinate notation
+     * @return the move
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation
+     */
+    public static ChessMove parse(CharSequence uci) {
+        int from = parseSquare(uci, 0);
+        int to = parseSquare(uci, 2);
+        ChessPiece.PieceType promotion = null;
+        if (uci.length() == 5) {
+            promotion = promotionType(uci.charAt(4));
+        }
+        if (from < 0 || to < 0 || (uci.length() != 4 && promotion == null)) {
+            throw new IllegalArgumentException("Not a move: " + uci);
+        }
+        return new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotion);
+    }
+
+    /**
+     * @param game the game the move is made in
+     * @param uci  the move in coordinate notation
+     * @return the legal packed move (see {@link PackedMove}) the text describes
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation or not legal
+     */
+    public static int parse(ChessGame game, CharSequence uci) {
+        try {
+            return game.legalMove(parse(uci));
+        } catch (InvalidMoveException e) {
+            throw new IllegalArgumentException("Illegal move: " + uci, e);
+        }
+    }
+
+    /**
+     * @return the 0 ~ 63 square named at an index, or -1 if there is no square name there
+     */
+    static int parseSquare(CharSequence text, int index) {
+        if (index + 2 > text.length()) {
+            return -1;
+        }
+        char file = text.charAt(index);
+        char rank = text.charAt(index + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    /**
+     * @return the upper case letter for a piece type, as used in SAN and FEN
+     */
+    static char pieceLetter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static ChessPiece.PieceType promotionType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.notation.Uci;
+import chess.piecemoves.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). The counts for well known
+ * positions are published, so a mismatch points straight at a move generation bug, and the time taken
+ * measures how fast moves are generated and made.
+ * <p>
+ * Usage: {@code java chess.perft.Perft <depth> [fen] [--divide]}
+ */
+public class Perft {
+
+    private final ChessGame game;
+    // One move list per ply so the search does not allocate
+    private MoveList[] lists = new MoveList[0];
+
+    public Perft(ChessGame game) {
+        this.game = game;
+    }
+
+    /**
+     * @param depth number of plies to search
+     * @return Number of positions reached after exactly depth moves
+     */
+    public long count(int depth) {
+        ensureLists(depth);
+        return count(depth, 0);
+    }
+
+    /**
+     * Counts the positions below each legal move, which makes it easy to find the move a bug is under
+     * when comparing against another move generator
+     *
+     * @param depth number of plies to search, counting the root move
+     * @return Node count per root move in coordinate notation (e.g. "e2e4", "e7e8q"), in generation order
+     */
+    public Map<String, Long> divide(int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (depth < 1) {
+            return counts;
+        }
+        ensureLists(depth);
+        MoveList moves = lists[0];
+        generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.makeMove(move);
+            counts.put(Uci.format(move), count(depth - 1, 1));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    private long count(int depth, int level) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[level];
+        generateMoves(moves);
+        // Leaf moves only need counting, not making
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += count(depth - 1, level + 1);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private void generateMoves(MoveList moves) {
+        moves.clear();
+        game.generateLegalMoves(moves);
+    }
+
+    private void ensureLists(int depth) {
+        if (lists.length < depth) {
+            MoveList[] grown = new MoveList[depth];
+            System.arraycopy(lists, 0, grown, 0, lists.length);
+            for (int i = lists.length; i < depth; i++) {
+                grown[i] = new MoveList();
+            }
+            lists = grown;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java chess.perft.Perft <depth> [fen] [--divide]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        StringBuilder fen = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--divide")) {
+                divide = true;
+            } else {
+                fen.append(args[i]).append(' ');
+            }
+        }
+        ChessGame game = Fen.parse(fen.isEmpty() ? Fen.START_POSITION : fen.toString());
+        Perft perft = new Perft(game);
+
+        for (int d = divide ? depth : 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes;
+            if (divide) {
+                nodes = 0;
+                for (Map.Entry<String, Long> entry : perft.divide(d).entrySet()) {
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                    nodes += entry.getValue();
+                }
+            } else {
+                nodes = perft.count(d);
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.printf("depth %d: %d nodes in %.3f s (%,d nodes/s)%n",
+                    d, nodes, nanos / 1e9, nodes * 1_000_000_000L / nanos);
+        }
+    }
+}
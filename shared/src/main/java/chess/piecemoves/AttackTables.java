@@ -0,0 +1,244 @@
+package chess.piecemoves;
+
+import chess.ChessGame;
+
+/**
+ * Precomputed attack tables, indexed by square (a1 = 0, h8 = 63).
+ * <p>
+ * Sliding attacks use magic bitboards: the blockers on a piece's rays are
+ * multiplied by a per-square magic number, and the top bits of the product
+ * index straight into a table of attack sets. All tables are built once when
+ * the class is loaded.
+ */
+public final class AttackTables {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // Fixed seeds per rank so the magic search finishes quickly and is the same on every run
+    private static final long[] MAGIC_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    // Per-square mask of relevant blockers, magic multiplier, shift and offset into the shared table
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[0x19000];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE = new long[0x1480];
+
+    private static final long NOT_A_FILE = 0xFEFEFEFEFEFEFEFEL;
+    private static final long NOT_AB_FILES = 0xFCFCFCFCFCFCFCFCL;
+    private static final long NOT_H_FILE = 0x7F7F7F7F7F7F7F7FL;
+    private static final long NOT_GH_FILES = 0x3F3F3F3F3F3F3F3FL;
+
+    // Leaper attacks per square; pawn attacks hold white's 64 squares followed by black's
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[] PAWN_ATTACKS = new long[2 * 64];
+
+    // Squares strictly between two aligned squares, and the whole line through them (0 if not aligned)
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    static {
+        initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+        initLeapers();
+        initLines();
+    }
+
+    private AttackTables() {}
+
+    /**
+     * @param square   square the rook stands on
+     * @param occupied bitboard of every occupied square
+     * @return Bitboard of every square the rook attacks, including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSETS[square]
+                + (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * @param square   square the bishop stands on
+     * @param occupied bitboard of every occupied square
+     * @return Bitboard of every square the bishop attacks, including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[square]
+                + (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * @param square   square the queen stands on
+     * @param occupied bitboard of every occupied square
+     * @return Bitboard of every square the queen attacks, including the first blocker on each ray
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @param square square the knight stands on
+     * @return Bitboard of every square the knight attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @param square square the king stands on
+     * @return Bitboard of every square the king attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param color  team of the pawn
+     * @param square square the pawn stands on
+     * @return Bitboard of the (up to two) squares the pawn attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[(color.ordinal() << 6) | square];
+    }
+
+    /**
+     * @return Bitboard of the squares strictly between two squares on a shared row, column or diagonal,
+     * or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[(from << 6) | to];
+    }
+
+    /**
+     * @return Bitboard of the whole row, column or diagonal through two squares, or 0 if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[(from << 6) | to];
+    }
+
+    /**
+     * Shifts each square's bit in every leaper direction, masking off moves that wrap around a board edge
+     */
+    private static void initLeapers() {
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            long oneColumn = ((bit << 1) & NOT_A_FILE) | ((bit >>> 1) & NOT_H_FILE);
+            long twoColumns = ((bit << 2) & NOT_AB_FILES) | ((bit >>> 2) & NOT_GH_FILES);
+            KNIGHT_ATTACKS[square] = (oneColumn << 16) | (oneColumn >>> 16) | (twoColumns << 8) | (twoColumns >>> 8);
+            KING_ATTACKS[square] = oneColumn | ((oneColumn | bit) << 8) | ((oneColumn | bit) >>> 8);
+            PAWN_ATTACKS[square] = ((bit << 7) & NOT_H_FILE) | ((bit << 9) & NOT_A_FILE);
+            PAWN_ATTACKS[64 | square] = ((bit >>> 9) & NOT_H_FILE) | ((bit >>> 7) & NOT_A_FILE);
+        }
+    }
+
+    private static void initLines() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                long toBit = 1L << to;
+                long fromBit = 1L << from;
+                if ((rookAttacks(from, 0L) & toBit) != 0) {
+                    LINE[(from << 6) | to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L)) | fromBit | toBit;
+                    BETWEEN[(from << 6) | to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+                } else if ((bishopAttacks(from, 0L) & toBit) != 0) {
+                    LINE[(from << 6) | to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L)) | fromBit | toBit;
+                    BETWEEN[(from << 6) | to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks each ray square by square, stopping after the first occupied square
+     */
+    private static long slidingAttacks(int[][] directions, int square, long occupied) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << ((row << 3) | col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Finds a magic number for every square and fills the shared attack table
+     */
+    private static void initMagics(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets,
+                                   long[] table) {
+        long[] occupancies = new long[4096];
+        long[] references = new long[4096];
+        int[] epochs = new int[4096];
+        int attempt = 0;
+        int offset = 0;
+        for (int square = 0; square < 64; square++) {
+            // Board edges never block a ray, so they are left out of the mask
+            long edges = ((0xFFL | 0xFF00000000000000L) & ~(0xFFL << ((square >>> 3) << 3)))
+                    | ((0x0101010101010101L | 0x8080808080808080L) & ~(0x0101010101010101L << (square & 7)));
+            long mask = slidingAttacks(directions, square, 0L) & ~edges;
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+
+            // Enumerate every subset of the mask (Carry-Rippler trick)
+            long subset = 0L;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                references[i] = slidingAttacks(directions, square, subset);
+                subset = (subset - mask) & mask;
+            }
+
+            long seed = MAGIC_SEEDS[square >>> 3];
+            long magic;
+            boolean found;
+            do {
+                do {
+                    seed = nextRandom(seed);
+                    long r1 = seed;
+                    seed = nextRandom(seed);
+                    long r2 = seed;
+                    seed = nextRandom(seed);
+                    magic = r1 * 0x2545F4914F6CDD1DL & r2 * 0x2545F4914F6CDD1DL & seed * 0x2545F4914F6CDD1DL;
+                } while (Long.bitCount((mask * magic) >>> 56) < 6);
+                attempt++;
+                found = true;
+                for (int i = 0; i < size; i++) {
+                    int index = offset + (int) ((occupancies[i] * magic) >>> (64 - bits));
+                    int slot = index - offset;
+                    if (epochs[slot] < attempt) {
+                        epochs[slot] = attempt;
+                        table[index] = references[i];
+                    } else if (table[index] != references[i]) {
+                        found = false;
+                        break;
+                    }
+                }
+            } while (!found);
+            masks[square] = mask;
+            magics[square] = magic;
+            shifts[square] = 64 - bits;
+            offsets[square] = offset;
+            offset += size;
+        }
+    }
+
+    private static long nextRandom(long seed) {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed;
+    }
+}
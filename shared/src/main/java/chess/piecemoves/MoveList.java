@@ -0,0 +1,67 @@
+package chess.piecemoves;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed moves (see {@link PackedMove}).
+ * <p>
+ * Callers keep one around and clear it between uses, so generating moves does
+ * not allocate once the buffer has grown to fit.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from the given index onwards
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    @Override
+    public String toString() {
+        return "MoveList{" +
+                "moves=" + Arrays.toString(Arrays.copyOf(moves, size)) +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package chess.piecemoves;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Encodes a move as a single int so move generation does not have to allocate.
+ * <p>
+ * Bits 0 ~ 5 hold the start square, bits 6 ~ 11 the end square, bits 12 ~ 14
+ * the promotion piece (0 for none, otherwise {@code PieceType.ordinal() + 1})
+ * and bits 15 ~ 18 the move flags.
+ */
+public final class PackedMove {
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {}
+
+    /**
+     * @param from      start square (0 ~ 63)
+     * @param to        end square (0 ~ 63)
+     * @param promotion piece to promote to, or null if no promotion
+     * @param flags     any of the flag constants or'ed together
+     * @return the packed move
+     */
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | (to << 6) | ((promotion == null) ? 0 : (promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    /**
+     * @param from  start square (0 ~ 63)
+     * @param to    end square (0 ~ 63)
+     * @param flags any of the flag constants or'ed together
+     * @return the packed move, without promotion
+     */
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return Type of piece to promote to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 7;
+        return (code == 0) ? null : PIECE_TYPES[code - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE | EN_PASSANT)) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return The start square, end square and promotion of a move, which fit in 15 bits and are all
+     * that is needed to find the move again among the legal moves of its position
+     */
+    public static int withoutFlags(int move) {
+        return move & (CAPTURE - 1);
+    }
+
+    /**
+     * Checks whether a packed move goes between the same squares with the same promotion as a ChessMove
+     */
+    public static boolean matches(int move, ChessMove chessMove) {
+        return from(move) == chessMove.getStartPosition().getSquare()
+                && to(move) == chessMove.getEndPosition().getSquare()
+                && promotion(move) == chessMove.getPromotionPiece();
+    }
+
+    /**
+     * Expands a packed move back into a ChessMove object
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.of(from(move)), ChessPosition.of(to(move)), promotion(move));
+    }
+}
@@ -1,63 +1,36 @@
 package chess.piecemoves;
 
 import chess.*;
-import java.util.ArrayList;
-import java.util.Objects;
 
+/**
+ * Base of the per-type move calculators. Calculators keep no state: everything a call needs is passed in
+ * and the moves go to the caller's list, so one instance can serve any number of threads at once.
+ */
 public class PieceMovesCalculator {
-    protected ChessBoard board;
-    protected ChessGame.TeamColor color;
-    protected ChessPosition myPosition;
-    protected ArrayList<ChessMove> moves;
 
-    public PieceMovesCalculator(ChessBoard board, ChessGame.TeamColor color, ChessPosition myPosition,
-                                ArrayList<ChessMove> moves) {
-        this.board = board;
-        this.color = color;
-        this.myPosition = myPosition;
-        this.moves = moves;
-    }
-
-     // Adds a single move
-     // Return if it's capturing or blocked by a piece or not
-
-    protected boolean addMove(ChessPosition endPosition) {
-        ChessPiece endPiece = board.getPiece(endPosition);
-        if (endPiece != null) {  // If there's a piece on the end position
-            if (endPiece.getTeamColor() != color) {  // If the end piece is not in the same team
-                moves.add(new ChessMove(myPosition, endPosition, null));
-            }
-            return true;
+    /**
+     * Appends the moves of a piece as packed ints (see {@link PackedMove})
+     *
+     * @param board  the board the piece stands on
+     * @param color  the piece's team
+     * @param square the square the piece stands on (0 ~ 63)
+     * @param moves  list to append the moves to
+     */
+    public void pieceMoves(ChessBoard board, ChessGame.TeamColor color, int square, MoveList moves) {}
+
+    // Adds a move to every square set in the target bitboard
+
+    protected static void addMoves(ChessBoard board, int square, long targets, MoveList moves) {
+        long occupied = board.getOccupied();
+        for (; targets != 0; targets &= targets - 1) {
+            int endSquare = Long.numberOfTrailingZeros(targets);
+            int flags = ((occupied & (1L << endSquare)) != 0) ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.of(square, endSquare, flags));
         }
-        // If there's no piece on the end position
-        moves.add(new ChessMove(myPosition, endPosition, null));
-        return false;
-    }
-
-    public void pieceMoves() {}
-
-    @Override
-    public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        PieceMovesCalculator that = (PieceMovesCalculator) o;
-        return Objects.equals(board, that.board) && color == that.color
-                && Objects.equals(myPosition, that.myPosition) && Objects.equals(moves, that.moves);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(board, color, myPosition, moves);
     }
 
     @Override
     public String toString() {
-        return "PieceMovesCalculator{" +
-                "board=" + board +
-                ", color=" + color +
-                ", myPosition=" + myPosition +
-                ", moves=" + moves +
-                '}';
+        return "PieceMovesCalculator{}";
     }
 }
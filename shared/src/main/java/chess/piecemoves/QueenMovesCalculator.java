@@ -2,21 +2,12 @@ package chess.piecemoves;
 
 import chess.*;
 
-import java.util.ArrayList;
-
-public class QueenMovesCalculator extends PieceMovesCalculator  {
-    public QueenMovesCalculator(ChessBoard board, ChessGame.TeamColor color, ChessPosition myPosition,
-                                ArrayList<ChessMove> moves) {
-        super(board, color, myPosition, moves);
-    }
+public class QueenMovesCalculator extends PieceMovesCalculator {
 
     @Override
-    public void pieceMoves() {
-        super.pieceMoves();
-        BishopMovesCalculator diagonalMoves = new BishopMovesCalculator(board, color, myPosition, moves);
-        RookMovesCalculator orthogonalMoves = new RookMovesCalculator(board, color, myPosition, moves);
-        diagonalMoves.pieceMoves();
-        orthogonalMoves.pieceMoves();
+    public void pieceMoves(ChessBoard board, ChessGame.TeamColor color, int square, MoveList moves) {
+        long attacks = AttackTables.queenAttacks(square, board.getOccupied());
+        addMoves(board, square, attacks & ~board.getPieces(color), moves);
     }
 
     @Override
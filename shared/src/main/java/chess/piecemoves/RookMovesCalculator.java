@@ -2,53 +2,13 @@ package chess.piecemoves;
 
 import chess.*;
 
-import java.util.ArrayList;
-
-public class RookMovesCalculator extends PieceMovesCalculator{
-
-    public RookMovesCalculator(ChessBoard board, ChessGame.TeamColor color, ChessPosition myPosition,
-                               ArrayList<ChessMove> moves) {
-        super(board, color, myPosition, moves);
-    }
+public class RookMovesCalculator extends PieceMovesCalculator {
 
     @Override
-    public void pieceMoves() {
-        super.pieceMoves();
-        // Get current row and column
-        int myRow = myPosition.getRow();
-        int myColumn = myPosition.getColumn();
-
-        // Left squares
-        for (int col = myColumn - 1; col > 0; col--) {
-            ChessPosition leftPosition = new ChessPosition(myRow, col);
-            if (addMove(leftPosition)) {
-                break;
-            }
-        }
-
-        // Right squares
-        for (int col = myColumn + 1; col < 9; col++) {
-            ChessPosition rightPosition = new ChessPosition(myRow, col);
-            if (addMove(rightPosition)) {
-                break;
-            }
-        }
-
-        // Front squares
-        for (int row = myRow + 1; row < 9; row++) {
-            ChessPosition frontPosition = new ChessPosition(row, myColumn);
-            if (addMove(frontPosition)) {
-                break;
-            }
-        }
-
-        // Back squares
-        for (int row = myRow - 1; row > 0; row--) {
-            ChessPosition backPosition = new ChessPosition(row, myColumn);
-            if (addMove(backPosition)) {
-                break;
-            }
-        }
+    public void pieceMoves(ChessBoard board, ChessGame.TeamColor color, int square, MoveList moves) {
+        // Look up every attacked square at once, then drop the ones holding our own pieces
+        long attacks = AttackTables.rookAttacks(square, board.getOccupied());
+        addMoves(board, square, attacks & ~board.getPieces(color), moves);
     }
 
     @Override
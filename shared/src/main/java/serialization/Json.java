@@ -0,0 +1,46 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessGameTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+import java.io.Reader;
+
+/**
+ * The one Gson instance shared by the client, the server and the messages between them, with every
+ * type adapter registered. Gson is thread-safe and caches the adapters it builds for each class, so
+ * reusing one instance skips the reflective setup that creating a new Gson per call repeats.
+ */
+public final class Json {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ChessGame.class, new ChessGameTypeAdapter())
+            .create();
+
+    private Json() {}
+
+    /**
+     * @return the shared Gson instance, for calls not covered by the helpers below
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static String toJson(Object object) {
+        return GSON.toJson(object);
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    public static <T> T fromJson(Reader json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    public static <T> T fromJson(JsonElement json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+}
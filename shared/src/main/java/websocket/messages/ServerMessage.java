@@ -1,6 +1,6 @@
 package websocket.messages;
 
-import com.google.gson.Gson;
+import serialization.Json;
 
 import java.util.Objects;
 
@@ -45,6 +45,6 @@ public class ServerMessage {
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Json.toJson(this);
     }
 }
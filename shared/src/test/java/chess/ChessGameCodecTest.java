@@ -0,0 +1,231 @@
+package chess;
+
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import org.junit.jupiter.api.Test;
+import serialization.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameCodecTest {
+
+    private static void assertSameGame(ChessGame expected, ChessGame actual) {
+        assertEquals(expected.getBoard(), actual.getBoard());
+        assertEquals(expected.getTeamTurn(), actual.getTeamTurn());
+        assertEquals(expected.getCastlingRights(), actual.getCastlingRights());
+        assertEquals(expected.getEnPassantSquare(), actual.getEnPassantSquare());
+        assertEquals(expected.getHalfmoveClock(), actual.getHalfmoveClock());
+        assertEquals(expected.getFullmoveNumber(), actual.getFullmoveNumber());
+        assertEquals(expected.isEnded(), actual.isEnded());
+        assertEquals(expected.getZobristKey(), actual.getZobristKey());
+    }
+
+    @Test
+    public void startPositionFitsIn34Bytes() {
+        ChessGame game = new ChessGame();
+        byte[] bytes = ChessGameCodec.encode(game);
+        assertEquals(34, bytes.length);
+        assertEquals(ChessGameCodec.VERSION, bytes[1]);
+        assertSameGame(game, ChessGameCodec.decode(bytes));
+    }
+
+    @Test
+    public void roundTripKeepsPositionState() {
+        String[] fens = {
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 7 41",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 99 300",
+        };
+        for (String fen : fens) {
+            ChessGame game = Fen.parse(fen);
+            assertSameGame(game, ChessGameCodec.decode(ChessGameCodec.encode(game)));
+        }
+        ChessGame ended = new ChessGame();
+        ended.setEnded();
+        assertSameGame(ended, ChessGameCodec.decode(ChessGameCodec.encode(ended)));
+    }
+
+    @Test
+    public void roundTripKeepsMoveHistory() throws InvalidMoveException {
+        ChessGame game = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3");
+        game.makeMove(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null));  // exf6 en passant
+        game.makeMove(new ChessMove(ChessPosition.of(7, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(5, 8), null));
+
+        byte[] bytes = ChessGameCodec.encode(game);
+        // 30 pieces left after two captures, then three moves of 7 bytes
+        assertEquals(16 + 15 + 2 + 3 * 7, bytes.length);
+        ChessGame copy = ChessGameCodec.decode(bytes);
+        assertSameGame(game, copy);
+        assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory());
+        copy.unmakeMove();
+        copy.unmakeMove();
+        copy.unmakeMove();
+        assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3", copy.toFen());
+    }
+
+    /**
+     * Plays a few hundred random legal moves from the start, always the same ones
+     */
+    static ChessGame longGame() {
+        return randomGame(2024, 300);
+    }
+
+    private static ChessGame randomGame(long seed, int plies) {
+        ChessGame game = new ChessGame();
+        Random random = new Random(seed);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < plies; i++) {
+            moves.clear();
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+
+    @Test
+    public void longGameRestoresStateDirectly() {
+        ChessGame game = longGame();
+        assertTrue(game.getPly() > 100);
+        byte[] bytes = ChessGameCodec.encode(game);
+        ChessGame copy = ChessGameCodec.decode(bytes);
+
+        // The header holds the current position, and the decoded game takes its state from there
+        assertEquals((bytes[2] & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK, copy.getTeamTurn());
+        assertEquals((bytes[2] & 0xFF) >>> 4, copy.getCastlingRights());
+        assertEquals((bytes[3] & 0xFF) - 1, copy.getEnPassantSquare());
+        assertEquals(((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF), copy.getHalfmoveClock());
+        assertEquals(((bytes[6] & 0xFF) << 8) | (bytes[7] & 0xFF), copy.getFullmoveNumber());
+        assertSameGame(game, copy);
+        assertEquals(game.getPly(), copy.getPly());
+        assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory());
+        assertEquals(game.isRepetition(), copy.isRepetition());
+
+        // Taking every move back, past the keys worked out on decoding, matches the original game
+        while (game.getPly() > 0) {
+            game.unmakeMove();
+            copy.unmakeMove();
+            assertEquals(game.getZobristKey(), copy.getZobristKey());
+            assertEquals(game.isRepetition(), copy.isRepetition());
+        }
+        assertEquals(Fen.START_POSITION, copy.toFen());
+    }
+
+    @Test
+    public void rejectsCorruptHistory() {
+        ChessGame game = new ChessGame();
+        game.makeMove(PackedMove.of(12, 28, PackedMove.DOUBLE_PUSH));
+        byte[] bytes = ChessGameCodec.encode(game);
+        // A captured piece index past the last piece
+        bytes[bytes.length - 4] = (byte) 0xF0;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(bytes));
+    }
+
+    @Test
+    public void rejectsHistoryThatDoesNotFitTheBoard() {
+        ChessGame game = new ChessGame();
+        game.makeMove(PackedMove.of(12, 28, PackedMove.DOUBLE_PUSH));
+        byte[] bytes = ChessGameCodec.encode(game);
+        int offset = bytes.length - 7;
+
+        // a1h8, landing on a black rook
+        byte[] wrongPiece = bytes.clone();
+        int corner = PackedMove.of(0, 63, 0);
+        wrongPiece[offset] = (byte) (corner >>> 16);
+        wrongPiece[offset + 1] = (byte) (corner >>> 8);
+        wrongPiece[offset + 2] = (byte) corner;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(wrongPiece));
+
+        // e2e4 as a single step
+        byte[] tooFar = bytes.clone();
+        tooFar[offset] = 0;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(tooFar));
+
+        // e2e4 taking a white knight
+        byte[] ownCapture = bytes.clone();
+        ownCapture[offset] |= (byte) (PackedMove.CAPTURE >>> 16);
+        ownCapture[offset + 3] |= (byte) ((ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)
+                .getPieceIndex() + 1) << 4);
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(ownCapture));
+    }
+
+    @Test
+    public void randomGamesRestore() {
+        // Enough games for castling, en passant and promotions all to come up
+        for (int seed = 0; seed < 200; seed++) {
+            ChessGame game = randomGame(seed, 200);
+            ChessGame copy = ChessGameCodec.decode(ChessGameCodec.encode(game));
+            assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory(), "seed " + seed);
+            assertEquals(game.getStartPosition().getBoard(), copy.getStartPosition().getBoard(), "seed " + seed);
+        }
+    }
+
+    @Test
+    public void readsVersion2() {
+        // The start position followed by e2e4 and e7e5 without flags
+        byte[] start = ChessGameCodec.encode(new ChessGame());
+        byte[] version2 = Arrays.copyOf(start, start.length + 4);
+        version2[1] = 2;
+        version2[start.length - 1] = 2;
+        version2[start.length] = (byte) (1804 >>> 8);
+        version2[start.length + 1] = (byte) 1804;
+        version2[start.length + 2] = (byte) ((52 | 36 << 6) >>> 8);
+        version2[start.length + 3] = (byte) (52 | 36 << 6);
+
+        ChessGame game = ChessGameCodec.decode(version2);
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", game.toFen());
+        assertEquals(2, game.getPly());
+    }
+
+    @Test
+    public void readsVersion1() {
+        byte[] current = ChessGameCodec.encode(Fen.parse(Fen.START_POSITION.replace(" w ", " b ")));
+        byte[] version1 = new byte[current.length - 2];
+        System.arraycopy(current, 0, version1, 0, version1.length);
+        version1[1] = 1;
+        ChessGame game = ChessGameCodec.decode(version1);
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(0, game.getPly());
+    }
+
+    @Test
+    public void tellsPackedGamesFromJson() {
+        byte[] json = Json.toJson(new ChessGame()).getBytes(StandardCharsets.UTF_8);
+        assertFalse(ChessGameCodec.isEncoded(json));
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(json));
+    }
+
+    @Test
+    public void rejectsUnknownVersionAndTruncation() {
+        byte[] bytes = ChessGameCodec.encode(new ChessGame());
+        byte[] future = bytes.clone();
+        future[1] = 99;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(future));
+
+        byte[] truncated = new byte[20];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(truncated));
+    }
+
+    @Test
+    public void rejectsTooManyMoves() {
+        // Knights out and back again, more times than the 2-byte move count holds
+        ChessGame game = new ChessGame();
+        int[] shuffle = {PackedMove.of(6, 21, 0), PackedMove.of(62, 45, 0),
+                PackedMove.of(21, 6, 0), PackedMove.of(45, 62, 0)};
+        for (int i = 0; i < 0xFFFF; i++) {
+            game.makeMove(shuffle[i % 4]);
+        }
+        assertEquals(0xFFFF, ChessGameCodec.decode(ChessGameCodec.encode(game)).getPly());
+
+        game.makeMove(shuffle[0xFFFF % 4]);
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.encode(game));
+    }
+}
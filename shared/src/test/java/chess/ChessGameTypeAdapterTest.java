@@ -0,0 +1,139 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import serialization.Json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameTypeAdapterTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R";
+
+    @Test
+    public void writesCompactBoard() {
+        String json = Json.toJson(new ChessGame());
+        assertTrue(json.contains("\"board\":\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\""), json);
+    }
+
+    @Test
+    public void roundTripKeepsPositionState() {
+        ChessGame game = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3");
+        game.setEnded();
+        ChessGame copy = Json.fromJson(Json.toJson(game), ChessGame.class);
+
+        assertEquals(game.getBoard(), copy.getBoard());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        assertEquals(ChessGame.WHITE_KING_SIDE | ChessGame.BLACK_QUEEN_SIDE, copy.getCastlingRights());
+        assertEquals(game.getEnPassantSquare(), copy.getEnPassantSquare());
+        assertEquals(3, copy.getFullmoveNumber());
+        assertTrue(copy.isEnded());
+    }
+
+    @Test
+    public void roundTripKeepsMoveHistory() throws InvalidMoveException {
+        ChessGame game = Fen.parse(KIWIPETE + " w KQkq - 0 1");
+        // Castle, then shuffle knights back and forth to repeat the position
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(6, 2), ChessPosition.of(8, 3), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 3), ChessPosition.of(1, 2), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 3), ChessPosition.of(6, 2), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 2), ChessPosition.of(3, 3), null));
+        assertTrue(game.isRepetition());
+
+        ChessGame copy = Json.fromJson(Json.toJson(game), ChessGame.class);
+        assertEquals(game.toFen(), copy.toFen());
+        assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory());
+        assertTrue(copy.isRepetition());
+        for (int i = 0; i < 5; i++) {
+            copy.unmakeMove();
+        }
+        assertEquals(KIWIPETE + " w KQkq - 0 1", copy.toFen());
+    }
+
+    @Test
+    public void longGameRestoresStateDirectly() {
+        ChessGame game = ChessGameCodecTest.longGame();
+        JsonObject json = JsonParser.parseString(Json.toJson(game)).getAsJsonObject();
+        ChessGame copy = Json.fromJson(json.toString(), ChessGame.class);
+
+        assertEquals(json.get("teamTurn").getAsString(), copy.getTeamTurn().name());
+        assertEquals(json.get("castlingRights").getAsInt(), copy.getCastlingRights());
+        assertEquals(json.get("enPassantSquare").getAsInt(), copy.getEnPassantSquare());
+        assertEquals(json.get("halfmoveClock").getAsInt(), copy.getHalfmoveClock());
+        assertEquals(json.get("fullmoveNumber").getAsInt(), copy.getFullmoveNumber());
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+        assertEquals(game.getPly(), json.get("undo").getAsJsonArray().size());
+        assertArrayEquals(game.getMoveHistory(), copy.getMoveHistory());
+
+        while (copy.getPly() > 0) {
+            copy.unmakeMove();
+        }
+        assertEquals(Fen.START_POSITION, copy.toFen());
+    }
+
+    @Test
+    public void readsStartPositionFormat() {
+        // Written with the position the game started in and its moves without flags, which are replayed
+        String json = "{\"teamTurn\":\"BLACK\",\"board\":\"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR\","
+                + "\"castlingRights\":15,\"enPassantSquare\":-1,\"halfmoveClock\":0,\"fullmoveNumber\":1,"
+                + "\"startPosition\":\"" + Fen.START_POSITION + "\",\"moves\":[1804]}";
+        ChessGame game = Json.fromJson(json, ChessGame.class);
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+        assertEquals(1, game.getPly());
+        // The stored state must match where the moves lead
+        assertThrows(JsonParseException.class,
+                () -> Json.fromJson(json.replace("\"halfmoveClock\":0", "\"halfmoveClock\":5"), ChessGame.class));
+    }
+
+    @Test
+    public void rejectsCorruptUndoRecords() {
+        String board = "{\"board\":\"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR\",\"teamTurn\":\"BLACK\",";
+        assertThrows(JsonParseException.class,
+                () -> Json.fromJson(board + "\"moves\":[1804,1804],\"undo\":[15]}", ChessGame.class));
+        assertThrows(JsonParseException.class,
+                () -> Json.fromJson(board + "\"moves\":[1804],\"undo\":[4026531855]}", ChessGame.class));
+        // Records in range, but a1h8 cannot have been played to reach the starting board
+        assertThrows(JsonParseException.class, () -> Json.fromJson(
+                "{\"board\":\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\",\"teamTurn\":\"BLACK\","
+                + "\"moves\":[4032],\"undo\":[15]}", ChessGame.class));
+    }
+
+    @Test
+    public void rejectsIllegalHistory() {
+        // e2e4 twice
+        assertThrows(JsonParseException.class,
+                () -> Json.fromJson("{\"board\":\"8/8/8/8/8/8/8/8\",\"moves\":[1804,1804]}", ChessGame.class));
+        // e2e4 does not lead to the starting board
+        assertThrows(JsonParseException.class, () -> Json.fromJson(
+                "{\"board\":\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\",\"moves\":[1804]}", ChessGame.class));
+    }
+
+    @Test
+    public void readsLegacyFormat() {
+        // The reflective format written before this adapter, with the board as nested piece arrays
+        ChessGame game = Fen.parse(KIWIPETE + " b KQkq - 0 1");
+        String legacy = new Gson().toJson(game);
+        assertTrue(legacy.contains("pieceColor"), legacy);
+
+        ChessGame copy = Json.fromJson(legacy, ChessGame.class);
+        assertEquals(game.getBoard(), copy.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, copy.getTeamTurn());
+        assertEquals(ChessGame.ALL_CASTLING, copy.getCastlingRights());
+    }
+
+    @Test
+    public void placementMatchesFen() {
+        assertEquals(KIWIPETE, Fen.placement(Fen.parse(KIWIPETE + " w KQkq - 0 1").getBoard()));
+    }
+
+    @Test
+    public void rejectsBadBoard() {
+        assertThrows(JsonParseException.class,
+                () -> Json.fromJson("{\"teamTurn\":\"WHITE\",\"board\":\"8/8/9\"}", ChessGame.class));
+        assertThrows(JsonParseException.class, () -> Json.fromJson("{\"teamTurn\":\"WHITE\"}", ChessGame.class));
+    }
+}
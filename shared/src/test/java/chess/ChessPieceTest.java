@@ -0,0 +1,34 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessPieceTest {
+
+    @Test
+    public void flyweightsAreShared() {
+        ChessPiece queen = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        assertSame(queen, ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        assertSame(queen, ChessPiece.of(queen.getPieceIndex()));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN), queen);
+
+        assertSame(ChessPosition.of(3, 5), ChessPosition.of(ChessPosition.toSquare(3, 5)));
+        assertEquals(new ChessPosition(3, 5), ChessPosition.of(3, 5));
+        assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9));
+    }
+
+    @Test
+    public void pieceMovesReturnsNewCollection() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPiece knight = board.getPiece(ChessPosition.of(1, 2));
+        Collection<ChessMove> first = knight.pieceMoves(board, ChessPosition.of(1, 2));
+        Collection<ChessMove> second = knight.pieceMoves(board, ChessPosition.of(1, 7));
+        assertNotSame(first, second);
+        assertEquals(2, first.size());
+        assertTrue(first.contains(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null)));
+    }
+}
@@ -0,0 +1,67 @@
+package chess;
+
+import chess.piecemoves.MoveList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * @return The piece-square score of a board built from scratch with the same pieces
+     */
+    private static int rescan(ChessBoard board) {
+        ChessBoard fresh = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            fresh.addPiece(square, board.getPiece(square));
+        }
+        return fresh.getPieceSquareScore();
+    }
+
+    @Test
+    public void startPositionIsEven() {
+        assertEquals(0, new ChessGame().evaluate());
+    }
+
+    @Test
+    public void mirroredPositionsScoreTheSame() {
+        ChessGame white = Fen.parse("4k3/8/8/8/8/2N5/1P6/4K3 w - - 0 1");
+        ChessGame black = Fen.parse("4k3/1p6/2n5/8/8/8/8/4K3 b - - 0 1");
+        assertTrue(white.evaluate() > 0);
+        assertEquals(white.evaluate(), black.evaluate());
+    }
+
+    @Test
+    public void incrementalScoreMatchesRescan() {
+        ChessGame game = Fen.parse(KIWIPETE);
+        int startScore = game.evaluate();
+        Random random = new Random(16);
+        MoveList moves = new MoveList();
+        int made = 0;
+        for (int i = 0; i < 200; i++) {
+            moves.clear();
+            game.generateLegalMoves(moves);
+            if (moves.size() == 0) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+            made++;
+            assertEquals(rescan(game.getBoard()), game.getBoard().getPieceSquareScore());
+        }
+        for (int i = 0; i < made; i++) {
+            game.unmakeMove();
+            assertEquals(rescan(game.getBoard()), game.getBoard().getPieceSquareScore());
+        }
+        assertEquals(startScore, game.evaluate());
+    }
+
+    @Test
+    public void copiedBoardKeepsScore() {
+        ChessGame game = Fen.parse(KIWIPETE);
+        assertEquals(game.evaluate(), new ChessGame(game).evaluate());
+    }
+}
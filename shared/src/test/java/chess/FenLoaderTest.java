@@ -0,0 +1,44 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenLoaderTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    public void loadsEveryLine() throws IOException {
+        String suite = "# perft suite\r\n"
+                + Fen.START_POSITION + " ;D1 20 ;D2 400\r\n"
+                + "\n"
+                + "   \n"
+                + KIWIPETE;  // No newline after the last line
+        List<ChessGame> games = new ArrayList<>();
+        assertEquals(2, FenLoader.load(new StringReader(suite), games::add));
+        assertEquals(Fen.START_POSITION, games.get(0).toFen());
+        assertEquals(KIWIPETE, games.get(1).toFen());
+    }
+
+    @Test
+    public void loadsLinesLongerThanTheBuffer() throws IOException {
+        String line = " ".repeat(100_000) + KIWIPETE + "\n";
+        List<ChessGame> games = new ArrayList<>();
+        assertEquals(3, FenLoader.load(new StringReader(line.repeat(3)), games::add));
+        assertEquals(KIWIPETE, games.get(2).toFen());
+    }
+
+    @Test
+    public void reportsBadLine() {
+        String suite = Fen.START_POSITION + "\n" + KIWIPETE + "\n8/8/8 w - -\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FenLoader.load(new StringReader(suite), game -> {}));
+        assertTrue(e.getMessage().startsWith("Line 3:"), e.getMessage());
+    }
+}
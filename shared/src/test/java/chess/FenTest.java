@@ -0,0 +1,71 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    @Test
+    public void formatRoundTrips() {
+        String[] fens = {
+                Fen.START_POSITION,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 7 41",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 99 300",
+        };
+        for (String fen : fens) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    public void followsMovesMade() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(Fen.START_POSITION, game.toFen());
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    public void enPassantMatchesPlay() throws InvalidMoveException {
+        // No black pawn can take on e3, so the square is dropped just as makeMove never records it
+        ChessGame parsed = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        ChessGame played = new ChessGame();
+        played.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(-1, parsed.getEnPassantSquare());
+        assertEquals(played.toFen(), parsed.toFen());
+        assertEquals(played.getZobristKey(), parsed.getZobristKey());
+
+        // With a pawn on d4 the square is kept, as in play
+        String capturable = "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+        assertEquals(20, Fen.parse(capturable).getEnPassantSquare());
+        assertEquals(capturable, Fen.parse(capturable).toFen());
+    }
+
+    @Test
+    public void parsesPartOfASequence() {
+        StringBuilder text = new StringBuilder("id 7: ").append(Fen.START_POSITION).append(" ;D1 20");
+        int start = text.indexOf("rnbq");
+        ChessGame game = Fen.parse(text, start, start + Fen.START_POSITION.length());
+        assertEquals(Fen.START_POSITION, game.toFen());
+        // Trailing perft counts and EPD operations are ignored, missing clocks default
+        assertEquals(Fen.START_POSITION, Fen.parse(text, start, text.length()).toFen());
+        assertEquals(Fen.START_POSITION, Fen.parse("  rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - bm e4;").toFen());
+    }
+
+    @Test
+    public void rejectsBadFen() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8 w - -"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace(" w ", " x ")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace("KQkq", "KQx")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace(" - ", " e9 ")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace("RNBQ", "RNXQ")));
+        // En passant squares on the wrong row for the side to move
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace(" - ", " e3 ")));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(Fen.START_POSITION.replace(" - ", " e4 ")));
+    }
+}
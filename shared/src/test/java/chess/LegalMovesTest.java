@@ -0,0 +1,86 @@
+package chess;
+
+import chess.piecemoves.MoveList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMovesTest {
+
+    private static final String[] POSITIONS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "4k3/8/8/8/8/8/3r4/R3K2q w Q - 0 1",
+    };
+
+    @Test
+    public void sideMovesMatchPerPieceMoves() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.parse(fen);
+            MoveList perPiece = new MoveList();
+            long pieces = game.getBoard().getPieces(game.getTeamTurn());
+            for (; pieces != 0; pieces &= pieces - 1) {
+                game.validMoves(Long.numberOfTrailingZeros(pieces), perPiece);
+            }
+            MoveList side = new MoveList();
+            game.generateLegalMoves(side);
+            assertEquals(perPiece.toString(), side.toString(), fen);
+            assertEquals(!side.isEmpty(), game.hasLegalMove(game.getTeamTurn()), fen);
+        }
+    }
+
+    @Test
+    public void checkmateAndStalemate() {
+        ChessGame mate = Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertTrue(mate.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(mate.isInStalemate(ChessGame.TeamColor.WHITE));
+        assertFalse(mate.isInCheckmate(ChessGame.TeamColor.BLACK));
+
+        ChessGame stalemate = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+        assertFalse(stalemate.isInCheckmate(ChessGame.TeamColor.BLACK));
+        assertFalse(stalemate.hasLegalMove(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void concurrentReadersAgree() throws Exception {
+        ChessGame game = Fen.parse(POSITIONS[1]);
+        MoveList expected = new MoveList();
+        game.generateLegalMoves(expected);
+        String expectedPieceMoves = game.getBoard().getPiece(ChessPosition.of(3, 6))
+                .pieceMoves(game.getBoard(), ChessPosition.of(3, 6)).toString();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 32; task++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        MoveList moves = new MoveList();
+                        game.generateLegalMoves(moves);
+                        String pieceMoves = game.getBoard().getPiece(ChessPosition.of(3, 6))
+                                .pieceMoves(game.getBoard(), ChessPosition.of(3, 6)).toString();
+                        if (!moves.toString().equals(expected.toString()) || !pieceMoves.equals(expectedPieceMoves)
+                                || game.isInCheckmate(ChessGame.TeamColor.WHITE)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MakeUnmakeTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static int move(ChessGame game, String from, String to, ChessPiece.PieceType promotion)
+            throws InvalidMoveException {
+        return game.legalMove(new ChessMove(position(from), position(to), promotion));
+    }
+
+    private static ChessPosition position(String square) {
+        return ChessPosition.of(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    /**
+     * Makes a move, checks the position it leads to, then takes it back and checks everything is restored
+     */
+    private static void assertRoundTrip(String fen, int move, String after) {
+        ChessGame game = Fen.parse(fen);
+        long key = game.getZobristKey();
+        int score = game.evaluate();
+        game.makeMove(move);
+        assertEquals(after, game.toFen());
+        assertEquals(1, game.getPly());
+        game.unmakeMove();
+        assertEquals(fen, game.toFen());
+        assertEquals(key, game.getZobristKey());
+        assertEquals(score, game.evaluate());
+        assertEquals(0, game.getPly());
+    }
+
+    @Test
+    public void castlingRoundTrips() throws InvalidMoveException {
+        ChessGame game = Fen.parse(KIWIPETE);
+        assertRoundTrip(KIWIPETE, move(game, "e1", "g1", null),
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R4RK1 b kq - 1 1");
+        assertRoundTrip(KIWIPETE, move(game, "e1", "c1", null),
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/2KR3R b kq - 1 1");
+
+        String black = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 3 7";
+        game = Fen.parse(black);
+        assertRoundTrip(black, move(game, "e8", "g8", null),
+                "r4rk1/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQ - 4 8");
+        assertRoundTrip(black, move(game, "e8", "c8", null),
+                "2kr3r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQ - 4 8");
+    }
+
+    @Test
+    public void enPassantRoundTrips() throws InvalidMoveException {
+        String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+        ChessGame game = Fen.parse(fen);
+        assertRoundTrip(fen, move(game, "e5", "f6", null),
+                "rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3");
+    }
+
+    @Test
+    public void promotionCaptureRoundTrips() throws InvalidMoveException {
+        String fen = "r3k2r/1P6/8/8/8/8/8/4K3 w kq - 5 40";
+        ChessGame game = Fen.parse(fen);
+        // Taking the rook also takes away black's queen side castling
+        assertRoundTrip(fen, move(game, "b7", "a8", ChessPiece.PieceType.KNIGHT),
+                "N3k2r/8/8/8/8/8/8/4K3 b k - 0 40");
+        assertRoundTrip(fen, move(game, "b7", "b8", ChessPiece.PieceType.QUEEN),
+                "rQ2k2r/8/8/8/8/8/8/4K3 b kq - 0 40");
+    }
+
+    @Test
+    public void clockAndRightsRestored() throws InvalidMoveException {
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 12 30";
+        ChessGame game = Fen.parse(fen);
+        assertRoundTrip(fen, move(game, "h1", "h5", null), "r3k2r/8/8/7R/8/8/8/R3K3 b Qkq - 13 30");
+        assertRoundTrip(fen, move(game, "e1", "e2", null), "r3k2r/8/8/8/8/8/4K3/R6R b kq - 13 30");
+        assertRoundTrip(fen, move(game, "a1", "a8", null), "R3k2r/8/8/8/8/8/8/4K2R b Kk - 0 30");
+    }
+
+    @Test
+    public void unmakeWithoutMoveThrows() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertThrows(IllegalStateException.class, game::unmakeMove);
+        assertEquals(0, game.getPly());
+        game.makeMove(move(game, "e2", "e4", null));
+        game.unmakeMove();
+        assertThrows(IllegalStateException.class, game::unmakeMove);
+        assertEquals(Fen.START_POSITION, game.toFen());
+    }
+}
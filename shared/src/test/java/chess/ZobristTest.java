@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    public void keyRestoredByUnmake() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long startKey = game.getZobristKey();
+        game.makeMove(move(2, 5, 4, 5));
+        assertNotEquals(startKey, game.getZobristKey());
+        game.unmakeMove();
+        assertEquals(startKey, game.getZobristKey());
+    }
+
+    @Test
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(7, 5, 6, 5));
+        first.makeMove(move(2, 4, 3, 4));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(2, 4, 3, 4));
+        second.makeMove(move(7, 5, 6, 5));
+        second.makeMove(move(1, 7, 3, 6));
+
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(first.getBoard().hashCode(), second.getBoard().hashCode());
+    }
+
+    @Test
+    public void sideToMoveChangesKey() {
+        ChessGame game = new ChessGame();
+        long whiteKey = game.getZobristKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(whiteKey, game.getZobristKey());
+    }
+
+    @Test
+    public void repetitionDetected() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertFalse(game.isRepetition());
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+        assertTrue(game.isRepetition());
+    }
+}
@@ -0,0 +1,92 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrderingTest {
+
+    // White can take the queen on d5 with the rook or the knight, or the pawn on g5 with the rook
+    private static final String CAPTURES = "4k3/8/8/3q2p1/1N6/8/3R2R1/4K3 w - - 0 1";
+    private static final String ITALIAN = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+    private static MoveList legalMoves(ChessGame game) {
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        return moves;
+    }
+
+    private static int find(MoveList moves, String name) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            String from = "" + (char) ('a' + (PackedMove.from(move) & 7)) + (char) ('1' + (PackedMove.from(move) >>> 3));
+            String to = "" + (char) ('a' + (PackedMove.to(move) & 7)) + (char) ('1' + (PackedMove.to(move) >>> 3));
+            if ((from + to).equals(name)) {
+                return move;
+            }
+        }
+        fail("no move " + name);
+        return 0;
+    }
+
+    @Test
+    public void hashMoveThenCapturesByVictimAndAttacker() {
+        ChessGame game = Fen.parse(CAPTURES);
+        MoveList moves = legalMoves(game);
+        int hashMove = find(moves, "e1f1");
+        MoveOrdering ordering = new MoveOrdering(MoveOrdering.ALL);
+        ordering.score(game.getBoard(), moves, 0, hashMove);
+
+        assertEquals(hashMove, ordering.next(moves, 0, 0));
+        assertEquals(find(moves, "b4d5"), ordering.next(moves, 0, 1));
+        assertEquals(find(moves, "d2d5"), ordering.next(moves, 0, 2));
+        assertEquals(find(moves, "g2g5"), ordering.next(moves, 0, 3));
+        assertFalse(PackedMove.isCapture(ordering.next(moves, 0, 4)));
+    }
+
+    @Test
+    public void killerComesBeforeOtherQuietMoves() {
+        ChessGame game = Fen.parse(ITALIAN);
+        MoveList moves = legalMoves(game);
+        int killer = find(moves, "h2h3");
+        MoveOrdering ordering = new MoveOrdering(MoveOrdering.ALL);
+        ordering.recordCutoff(game.getBoard(), killer, 3, 2);
+        assertEquals(killer, ordering.killer(3, 0));
+
+        ordering.score(game.getBoard(), moves, 3, 0);
+        // The captures Nxe5 and Bxf7+ come first, then the killer
+        assertEquals(find(moves, "f3e5"), ordering.next(moves, 3, 0));
+        assertEquals(find(moves, "c4f7"), ordering.next(moves, 3, 1));
+        assertEquals(killer, ordering.next(moves, 3, 2));
+
+        // Killers belong to their ply, and are forgotten by a new search
+        assertEquals(0, ordering.killer(4, 0));
+        ordering.newSearch();
+        assertEquals(0, ordering.killer(3, 0));
+    }
+
+    @Test
+    public void capturesAreNotKillers() {
+        ChessGame game = Fen.parse(ITALIAN);
+        MoveOrdering ordering = new MoveOrdering(MoveOrdering.ALL);
+        ordering.recordCutoff(game.getBoard(), find(legalMoves(game), "f3e5"), 1, 3);
+        assertEquals(0, ordering.killer(1, 0));
+    }
+
+    @Test
+    public void heuristicsPruneWithoutChangingTheResult() {
+        ChessGame game = Fen.parse(ITALIAN);
+        Search hashOnly = new Search(game);
+        hashOnly.setMoveOrdering(MoveOrdering.HASH_MOVE | MoveOrdering.CAPTURES);
+        SearchResult slower = hashOnly.search(SearchLimits.depth(5));
+        SearchResult faster = new Search(game).search(SearchLimits.depth(5));
+
+        assertEquals(slower.score(), faster.score());
+        assertTrue(faster.nodes() < slower.nodes(),
+                "killers and history should search fewer nodes: " + faster.nodes() + " vs " + slower.nodes());
+    }
+}
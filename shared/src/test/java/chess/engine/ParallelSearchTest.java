@@ -0,0 +1,58 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearchTest {
+
+    @Test
+    public void findsSameMateAsSingleThread() {
+        ParallelSearch search = new ParallelSearch(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1"),
+                new TranspositionTable(8), 4);
+        SearchResult result = search.search(SearchLimits.depth(6));
+        assertEquals(Search.MATE_SCORE - 3, result.score());
+        assertEquals(4, search.getThreadCount());
+    }
+
+    @Test
+    public void helpersAddNodes() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        SearchResult result = new ParallelSearch(Fen.parse(fen), new TranspositionTable(8), 3)
+                .search(SearchLimits.time(300));
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+        assertTrue(result.millis() < 3000);
+    }
+
+    @Test
+    public void winsHangingQueenOnEveryThreadCount() {
+        ChessMove capture = new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null);
+        for (int threads = 1; threads <= 4; threads++) {
+            SearchResult result = new ParallelSearch(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"),
+                    new TranspositionTable(1), threads).search(SearchLimits.depth(4));
+            assertEquals(capture, result.bestMove(), threads + " threads");
+        }
+    }
+
+    @Test
+    public void stopEndsSearchFromAnotherThread() throws InterruptedException {
+        ParallelSearch search = new ParallelSearch(Fen.parse(Fen.START_POSITION), new TranspositionTable(8), 2);
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            search.stop();
+        });
+        long start = System.nanoTime();
+        stopper.start();
+        SearchResult result = search.search(SearchLimits.depth(Search.MAX_PLY));
+        stopper.join();
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+        assertNotNull(result.bestMove());
+    }
+}
@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    public void findsMateInOne() {
+        SearchResult result = new Search(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1")).search(SearchLimits.depth(4));
+        assertEquals(move(1, 1, 8, 1), result.bestMove());
+        assertTrue(result.isMate());
+        assertEquals(Search.MATE_SCORE - 1, result.score());
+    }
+
+    @Test
+    public void findsMateInTwo() {
+        // 1. Kg6 Kg8 2. Ra8#
+        SearchResult result = new Search(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1")).search(SearchLimits.depth(5));
+        assertTrue(result.isMate());
+        assertEquals(Search.MATE_SCORE - 3, result.score());
+    }
+
+    @Test
+    public void winsHangingQueen() {
+        SearchResult result = new Search(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1")).search(SearchLimits.depth(3));
+        assertEquals(move(2, 4, 5, 4), result.bestMove());
+        assertTrue(result.score() > 300);
+    }
+
+    @Test
+    public void principalVariationIsPlayable() throws InvalidMoveException {
+        ChessGame game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        long key = game.getZobristKey();
+        SearchResult result = new Search(game).search(SearchLimits.depth(4));
+        assertEquals(key, game.getZobristKey(), "search must not change the game");
+        assertEquals(4, result.depth());
+        assertFalse(result.principalVariation().isEmpty());
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+        ChessGame replay = new ChessGame(game);
+        for (ChessMove move : result.principalVariation()) {
+            replay.makeMove(move);
+        }
+    }
+
+    @Test
+    public void respectsNodeLimit() {
+        SearchResult result = new Search(Fen.parse(Fen.START_POSITION)).search(SearchLimits.nodes(5000));
+        assertTrue(result.nodes() <= 5000);
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    public void respectsTimeLimit() {
+        SearchResult result = new Search(Fen.parse(Fen.START_POSITION)).search(SearchLimits.time(200));
+        assertTrue(result.millis() < 2000, "took " + result.millis() + " ms");
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+    }
+
+    @Test
+    public void noMoveWhenMatedOrStalemated() {
+        SearchResult mated = new Search(Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1")).search(SearchLimits.depth(3));
+        assertNull(mated.bestMove());
+        assertEquals(-Search.MATE_SCORE, mated.score());
+
+        SearchResult stalemate = new Search(Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1")).search(SearchLimits.depth(3));
+        assertNull(stalemate.bestMove());
+        assertEquals(0, stalemate.score());
+    }
+}
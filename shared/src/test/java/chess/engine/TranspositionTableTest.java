@@ -0,0 +1,104 @@
+package chess.engine;
+
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        // 1 MB holds 2^15 buckets of two entries
+        assertEquals(1 << 16, table.capacity());
+        long key = 0x123456789ABCDEF0L;
+        assertEquals(0L, table.probe(key));
+
+        table.store(key, 0x4ABCD, -1234, 7, TranspositionTable.LOWER_BOUND);
+        long data = table.probe(key);
+        assertEquals(0x4ABCD, TranspositionTable.move(data));
+        assertEquals(-1234, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data));
+        assertEquals(0L, table.probe(key ^ 1));
+
+        table.clear();
+        assertEquals(0L, table.probe(key));
+    }
+
+    @Test
+    public void deepEntryIsKept() {
+        TranspositionTable table = new TranspositionTable(1);
+        // Keys that differ only above the bucket bits share a bucket
+        long buckets = table.capacity() / 2;
+        long deep = 42;
+        long shallow = deep + (buckets << 32);
+        long newer = deep + (2 * buckets << 32);
+        table.store(deep, 1, 10, 9, TranspositionTable.EXACT);
+        table.store(shallow, 2, 20, 2, TranspositionTable.EXACT);
+        table.store(newer, 3, 30, 1, TranspositionTable.EXACT);
+        assertEquals(9, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(0L, table.probe(shallow));
+        assertEquals(1, TranspositionTable.depth(table.probe(newer)));
+
+        // A new search may overwrite the old deep entry
+        table.newSearch();
+        table.store(shallow, 2, 20, 2, TranspositionTable.EXACT);
+        assertEquals(0L, table.probe(deep));
+        assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+    }
+
+    @Test
+    public void concurrentWritersNeverReturnForeignData() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                results.add(pool.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < 200_000; i++) {
+                        // Keys from a small range so threads keep writing the same buckets
+                        long key = random.nextLong(1, 1 << 12) * 0x9E3779B97F4A7C15L;
+                        if (random.nextBoolean()) {
+                            table.store(key, (int) (key & 0x7FFFF), 0, 1, TranspositionTable.EXACT);
+                        } else {
+                            long data = table.probe(key);
+                            if (data != 0 && TranspositionTable.move(data) != (int) (key & 0x7FFFF)) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedTableKeepsSearchCorrect() {
+        TranspositionTable table = new TranspositionTable(4);
+        Search first = new Search(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1"), table);
+        SearchResult result = first.search(SearchLimits.depth(6));
+        assertEquals(Search.MATE_SCORE - 3, result.score());
+        // A second search over the warm table agrees and needs fewer nodes
+        SearchResult again = new Search(Fen.parse("7k/8/5K2/8/8/8/8/R7 w - - 0 1"), table).search(SearchLimits.depth(6));
+        assertEquals(result.score(), again.score());
+        assertTrue(again.nodes() <= result.nodes());
+        assertTrue(table.hashfull() >= 0);
+    }
+}
@@ -0,0 +1,113 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTest {
+
+    private static final String GAMES = """
+            [Event "Casual \\"blitz\\""]
+            [White "Carlsen, Magnus"]
+            [Black "Nepomniachtchi, Ian"]
+            [Result "1/2-1/2"]
+
+            1. e4 e5 2. Nf3 {the usual,
+            [not a tag] } Nc6 (2... d6 3. d4 {also fine} (3. Bc4)) 3. Bb5 a6 $1 4. Ba4 ; to a4
+            Nf6 5.O-O 1/2-1/2
+            [Event "Study"]
+            [FEN "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"]
+            [SetUp "1"]
+
+            1. O-O-O O-O *
+
+            [Event "Broken"]
+
+            1. e4 e5 2. Ke3 0-1
+            """;
+
+    @Test
+    public void readsGamesOneAtATime() throws IOException {
+        try (PgnReader reader = new PgnReader(new StringReader(GAMES))) {
+            PgnGame first = reader.next();
+            assertEquals(1, first.number());
+            assertEquals("Casual \"blitz\"", first.tags().get("Event"));
+            assertEquals("Carlsen, Magnus", first.tags().get("White"));
+            assertTrue(first.movetext().contains("[not a tag]"));
+
+            PgnGame second = reader.next();
+            assertEquals(2, second.number());
+            assertEquals("Study", second.tags().get("Event"));
+            assertEquals("1. O-O-O O-O *\n", second.movetext());
+
+            assertEquals("Broken", reader.next().tags().get("Event"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void playsMainLine() throws IOException {
+        try (PgnReader reader = new PgnReader(new StringReader(GAMES))) {
+            ChessGame first = Pgn.play(reader.next());
+            assertEquals("r1bqkb1r/1ppp1ppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 3 5", first.toFen());
+            assertEquals(9, first.getPly());
+            assertTrue(first.isEnded());
+
+            ChessGame second = Pgn.play(reader.next());
+            assertEquals("r4rk1/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/2KR3R w - - 2 2", second.toFen());
+            assertFalse(second.isEnded());
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Pgn.play(reader.next()));
+            assertEquals("Ply 3: Illegal move: Ke3", e.getMessage());
+        }
+        assertEquals("1-0", Pgn.play(new ChessGame(), "1.e4 e5 2.Qh5 Nc6 3.Bc4 Nf6 4.Qxf7# 1-0"));
+        assertThrows(IllegalArgumentException.class, () -> Pgn.play(new ChessGame(), "1. e4 {unclosed"));
+    }
+
+    @Test
+    public void importsInFileOrder() throws IOException {
+        List<String> imported = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (PgnReader reader = new PgnReader(new StringReader(GAMES.repeat(20)))) {
+            PgnImporter.Result result = new PgnImporter(pool, 3).run(reader, new PgnImporter.Sink<RuntimeException>() {
+                @Override
+                public void imported(PgnGame pgn, ChessGame game) {
+                    imported.add(pgn.number() + " " + game.toFen());
+                }
+
+                @Override
+                public void rejected(PgnGame pgn, IllegalArgumentException reason) {
+                    rejected.add(pgn.number());
+                }
+            });
+            assertEquals(60, result.games());
+            assertEquals(40, result.imported());
+            assertEquals(20, result.rejected());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(40, imported.size());
+        assertTrue(imported.get(0).startsWith("1 r1bqkb1r/"), imported.get(0));
+        assertTrue(imported.get(1).startsWith("2 r4rk1/"), imported.get(1));
+        assertEquals(3L, rejected.get(0));
+        assertEquals(60L, rejected.get(19));
+    }
+
+    @Test
+    public void unexpectedFailureRejectsGame() {
+        // No movetext at all, which the reader never gives, fails outside the move parser
+        PgnImporter.Played played = PgnImporter.play(new PgnGame(1, Map.of(), null));
+        assertNull(played.game());
+        assertInstanceOf(NullPointerException.class, played.error().getCause());
+    }
+}
@@ -0,0 +1,190 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // Squares by name, a1 = 0
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+
+    private static void assertMove(String from, String to, int move) {
+        assertEquals(square(from), PackedMove.from(move));
+        assertEquals(square(to), PackedMove.to(move));
+    }
+
+    @Test
+    public void readsPieceAndPawnMoves() {
+        ChessGame game = new ChessGame();
+        int e4 = San.parse(game, "e4");
+        assertMove("e2", "e4", e4);
+        assertTrue(PackedMove.hasFlag(e4, PackedMove.DOUBLE_PUSH));
+        assertMove("g1", "f3", San.parse(game, "Nf3"));
+        assertMove("b1", "c3", San.parse(game, "Nxc3!?"));
+
+        ChessGame enPassant = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3");
+        int exf6 = San.parse(enPassant, "exf6");
+        assertMove("e5", "f6", exf6);
+        assertTrue(PackedMove.hasFlag(exf6, PackedMove.EN_PASSANT));
+    }
+
+    @Test
+    public void readsDisambiguation() {
+        ChessGame game = Fen.parse("4k3/8/8/R7/8/8/8/RN2KN2 w - - 0 1");
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nd2"));
+        assertMove("b1", "d2", San.parse(game, "Nbd2"));
+        assertMove("f1", "d2", San.parse(game, "Nfd2"));
+        assertMove("a1", "a3", San.parse(game, "R1a3"));
+        assertMove("a5", "a3", San.parse(game, "R5a3"));
+        assertMove("a1", "a3", San.parse(game, "Ra1a3"));
+    }
+
+    @Test
+    public void readsPromotionAndCastling() {
+        ChessGame promotion = Fen.parse("1r5k/P7/8/8/8/8/8/K7 w - - 0 1");
+        assertEquals(ChessPiece.PieceType.QUEEN, PackedMove.promotion(San.parse(promotion, "a8=Q+")));
+        assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotion(San.parse(promotion, "a8N")));
+        assertEquals(ChessPiece.PieceType.ROOK, PackedMove.promotion(San.parse(promotion, "axb8=R")));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(promotion, "a8"));
+
+        ChessGame castling = Fen.parse(KIWIPETE);
+        assertMove("e1", "g1", San.parse(castling, "O-O"));
+        assertMove("e1", "c1", San.parse(castling, "0-0-0"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(castling, "O-O-O-O"));
+    }
+
+    @Test
+    public void rejectsBadMoves() {
+        ChessGame game = new ChessGame();
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Ke2"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "e5"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "O-O"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Zz9"));
+        assertEquals("Not a move: Zz9", e.getMessage());
+    }
+
+    @Test
+    public void writesMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals("e4", San.format(game, San.parse(game, "e4")));
+        assertEquals("Nf3", San.format(game, new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> San.format(game, new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null)));
+        assertEquals(Fen.START_POSITION, game.toFen());
+
+        // Scholar's mate
+        for (String move : new String[] {"e4", "e5", "Qh5", "Nc6", "Bc4", "Nf6"}) {
+            game.makeMove(San.parse(game, move));
+        }
+        assertEquals("Bxf7+", San.format(game, San.parse(game, "Bxf7")));
+        assertEquals("Qxf7#", San.format(game, San.parse(game, "Qxf7")));
+
+        assertEquals("exf6", San.format(Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3"),
+                PackedMove.of(36, 45, PackedMove.EN_PASSANT)));
+        ChessGame promotion = Fen.parse("1r5k/P7/8/8/8/8/8/K7 w - - 0 1");
+        assertEquals("axb8=Q+", San.format(promotion, San.parse(promotion, "axb8Q")));
+        ChessGame castling = Fen.parse(KIWIPETE);
+        assertEquals("O-O-O", San.format(castling, San.parse(castling, "0-0-0")));
+    }
+
+    @Test
+    public void writesDisambiguation() {
+        ChessGame game = Fen.parse("4k3/8/8/R7/8/8/8/RN2KN2 w - - 0 1");
+        assertEquals("Nbd2", San.format(game, San.parse(game, "Nbd2")));
+        assertEquals("R1a3", San.format(game, San.parse(game, "Ra1a3")));
+        assertEquals("Rb5", San.format(game, San.parse(game, "Rb5")));
+        // Queens on e4 and h1 share a rank and a file with the one on h4
+        ChessGame queens = Fen.parse("1k6/8/8/8/4Q2Q/8/8/K6Q w - - 0 1");
+        assertEquals("Qh4e1", San.format(queens, San.parse(queens, "Qh4e1")));
+        assertEquals("Qee1", San.format(queens, San.parse(queens, "Qe4e1")));
+        assertEquals("Q1e1", San.format(queens, San.parse(queens, "Qh1e1")));
+    }
+
+    @Test
+    public void roundTripsEveryLegalMove() {
+        for (String fen : new String[] {Fen.START_POSITION, KIWIPETE, "1k6/8/8/8/4Q2Q/8/8/K6Q w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"}) {
+            ChessGame game = Fen.parse(fen);
+            MoveList moves = new MoveList();
+            game.generateLegalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                String san = San.format(game, moves.get(i));
+                assertEquals(moves.get(i), San.parse(game, san), san);
+            }
+            assertEquals(fen, game.toFen());
+        }
+    }
+
+    @Test
+    public void checkMarksMatchPlay() {
+        // Discovered checks, en passant along a rank, castling and promotion checks, then a random game
+        List<ChessGame> games = new ArrayList<>();
+        for (String fen : new String[] {KIWIPETE, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "8/8/8/k2pP2R/8/8/8/7K w - d6 0 1", "5k2/8/8/8/8/8/8/4K2R w K - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", "3k4/8/8/8/8/8/4B3/R2BK2R w K - 0 1"}) {
+            games.add(Fen.parse(fen));
+        }
+        ChessGame game = new ChessGame();
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 200; i++) {
+            moves.clear();
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())));
+            games.add(new ChessGame(game));
+        }
+
+        int checks = 0;
+        for (ChessGame position : games) {
+            moves.clear();
+            position.generateLegalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame after = new ChessGame(position);
+                after.makeMove(moves.get(i));
+                ChessGame.TeamColor opponent = after.getTeamTurn();
+                String mark = !after.isInCheck(opponent) ? "" : after.hasLegalMove(opponent) ? "+" : "#";
+                String san = San.format(position, moves.get(i));
+                assertEquals(mark, san.replaceAll("[^+#]", ""), san + " in " + position.toFen());
+                checks += mark.isEmpty() ? 0 : 1;
+            }
+        }
+        assertTrue(checks > 50);
+    }
+
+    @Test
+    public void formatLeavesGameUnchanged() {
+        ChessGame game = Fen.parse(KIWIPETE);
+        game.makeMove(San.parse(game, "Qxf6"));
+        long key = game.getZobristKey();
+        int ply = game.getPly();
+        String fen = game.toFen();
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            San.format(game, moves.get(i));
+            assertEquals(key, game.getZobristKey());
+            assertEquals(ply, game.getPly());
+            assertEquals(fen, game.toFen());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UciTest {
+
+    @Test
+    public void namesSquares() {
+        assertEquals("a1", Uci.squareName(0));
+        assertEquals("e4", Uci.squareName(28));
+        assertEquals("h8", Uci.squareName(63));
+        assertSame(Uci.squareName(28), Uci.squareName(28));
+    }
+
+    @Test
+    public void formatsMoves() {
+        assertEquals("e2e4", Uci.format(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null)));
+        assertEquals("e7e8q", Uci.format(PackedMove.of(52, 60, ChessPiece.PieceType.QUEEN, 0)));
+        assertEquals("a2a1n", Uci.format(PackedMove.of(8, 0, ChessPiece.PieceType.KNIGHT, PackedMove.CAPTURE)));
+        StringBuilder line = new StringBuilder();
+        Uci.appendTo(Uci.appendTo(line, PackedMove.of(12, 28, 0)).append(' '), PackedMove.of(52, 36, 0));
+        assertEquals("e2e4 e7e5", line.toString());
+    }
+
+    @Test
+    public void parsesMoves() {
+        assertEquals(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.ROOK),
+                Uci.parse("a7a8r"));
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(moves.get(i), Uci.parse(game, Uci.format(moves.get(i))));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e2e9"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e7e8k"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e2"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse(game, "a8a7"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse(game, "e1e3"));
+    }
+}
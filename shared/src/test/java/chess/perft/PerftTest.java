@@ -0,0 +1,76 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Node counts from the standard perft positions (chessprogramming.org/Perft_Results)
+ */
+public class PerftTest {
+
+    private static void assertPerft(String fen, long... expected) {
+        ChessGame game = Fen.parse(fen);
+        long key = game.getZobristKey();
+        Perft perft = new Perft(game);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft.count(depth), "depth " + depth + " of " + fen);
+        }
+        assertEquals(key, game.getZobristKey(), "position not restored after perft");
+    }
+
+    @Test
+    public void startPosition() {
+        assertPerft(Fen.START_POSITION, 20, 400, 8902, 197281, 4865609);
+    }
+
+    @Test
+    public void kiwipete() {
+        assertPerft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2039, 97862, 4085603);
+    }
+
+    @Test
+    public void position3() {
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238, 674624);
+    }
+
+    @Test
+    public void position4() {
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 6, 264, 9467, 422333);
+    }
+
+    @Test
+    public void position4Mirrored() {
+        assertPerft("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 6, 264, 9467, 422333);
+    }
+
+    @Test
+    public void position5() {
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1486, 62379, 2103487);
+    }
+
+    @Test
+    public void position6() {
+        assertPerft("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 46, 2079, 89890, 3894594);
+    }
+
+    @Test
+    public void divideSumsToCount() {
+        Perft perft = new Perft(Fen.parse(Fen.START_POSITION));
+        Map<String, Long> divide = perft.divide(3);
+        assertEquals(20, divide.size());
+        assertEquals(600, divide.get("e2e4"));
+        assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void badFenRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8 w - -"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 x - -"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("9/8/8/8/8/8/8/8 w - -"));
+    }
+}
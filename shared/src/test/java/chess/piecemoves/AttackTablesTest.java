@@ -0,0 +1,99 @@
+package chess.piecemoves;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttackTablesTest {
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static long walkRays(int[][] directions, int square, long occupied) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int col = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    public void slidingAttacksMatchRayWalk() {
+        Random random = new Random(240);
+        for (int i = 0; i < 2000; i++) {
+            // Sparse and dense boards both show up in real games
+            long occupied = (i % 2 == 0) ? random.nextLong() & random.nextLong() : random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                assertEquals(walkRays(ROOK_DIRECTIONS, square, occupied), AttackTables.rookAttacks(square, occupied));
+                assertEquals(walkRays(BISHOP_DIRECTIONS, square, occupied), AttackTables.bishopAttacks(square, occupied));
+            }
+        }
+    }
+
+    @Test
+    public void queenAttacksEmptyBoard() {
+        // Queen on d4 of an empty board sees 27 squares
+        assertEquals(27, Long.bitCount(AttackTables.queenAttacks(27, 0L)));
+        // Queen in the corner sees 21 squares
+        assertEquals(21, Long.bitCount(AttackTables.queenAttacks(0, 0L)));
+    }
+
+    @Test
+    public void leaperAttacks() {
+        // Knight on a1 reaches b3 and c2, on d4 it reaches 8 squares
+        assertEquals((1L << 17) | (1L << 10), AttackTables.knightAttacks(0));
+        assertEquals(8, Long.bitCount(AttackTables.knightAttacks(27)));
+        assertEquals(3, Long.bitCount(AttackTables.kingAttacks(63)));
+        // White pawn on a2 only attacks b3, black pawn on h7 only attacks g6
+        assertEquals(1L << 17, AttackTables.pawnAttacks(ChessGame.TeamColor.WHITE, 8));
+        assertEquals(1L << 46, AttackTables.pawnAttacks(ChessGame.TeamColor.BLACK, 55));
+    }
+
+    @Test
+    public void leaperTablesMatchOffsets() {
+        int[][] knight = {{2, -1}, {2, 1}, {-2, -1}, {-2, 1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        int[][] king = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}, {1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+        for (int square = 0; square < 64; square++) {
+            assertEquals(walkOffsets(knight, square), AttackTables.knightAttacks(square), "knight on " + square);
+            assertEquals(walkOffsets(king, square), AttackTables.kingAttacks(square), "king on " + square);
+            assertEquals(walkOffsets(new int[][]{{1, -1}, {1, 1}}, square),
+                    AttackTables.pawnAttacks(ChessGame.TeamColor.WHITE, square), "white pawn on " + square);
+            assertEquals(walkOffsets(new int[][]{{-1, -1}, {-1, 1}}, square),
+                    AttackTables.pawnAttacks(ChessGame.TeamColor.BLACK, square), "black pawn on " + square);
+        }
+    }
+
+    private static long walkOffsets(int[][] offsets, int square) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int row = (square >>> 3) + offset[0];
+            int col = (square & 7) + offset[1];
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    public void betweenAndLine() {
+        // a1 to h8: b2 ~ g7 lie between, the whole long diagonal is the line
+        assertEquals(0x0040201008040200L, AttackTables.between(0, 63));
+        assertEquals(0x8040201008040201L, AttackTables.line(0, 63));
+        // a1 and b3 are not aligned
+        assertEquals(0L, AttackTables.between(0, 17));
+        assertEquals(0L, AttackTables.line(0, 17));
+    }
+}
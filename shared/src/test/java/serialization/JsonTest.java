@@ -0,0 +1,41 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.Fen;
+import exception.ResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    public void sharedInstanceIsReused() {
+        assertSame(Json.gson(), Json.gson());
+    }
+
+    @Test
+    public void gameRoundTripRebuildsBoard() {
+        ChessGame game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 4 4");
+        ChessGame copy = Json.fromJson(Json.toJson(game), ChessGame.class);
+
+        assertEquals(game.getBoard(), copy.getBoard());
+        assertEquals(game.getTeamTurn(), copy.getTeamTurn());
+        // The registered adapter adds pieces one by one, so the derived board state is rebuilt too
+        assertEquals(game.getBoard().getZobristKey(), copy.getBoard().getZobristKey());
+        assertEquals(game.evaluate(), copy.evaluate());
+    }
+
+    @Test
+    public void responseExceptionRoundTrip() {
+        ResponseException original = new ResponseException(403, "Error: already taken");
+        ResponseException read = ResponseException.fromJson(
+                new ByteArrayInputStream(original.toJson().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(403, read.statusCode());
+        assertEquals("Error: already taken", read.getMessage());
+    }
+}